@@ -0,0 +1,55 @@
+// Mixed read load against a running instance: product listing, cart and
+// order history for one logged-in customer per virtual user.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e USERNAME=alice -e PASSWORD=secret \
+//          -e CATEGORY=Shirts loadtest/k6-browse-and-cart.js
+//
+// Run it once with spring.threads.virtual.enabled=false and once with true
+// (same build, same data, same pool size) and compare the summaries.
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const CATEGORY = __ENV.CATEGORY || 'Shirts';
+
+export const options = {
+    scenarios: {
+        ramp: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 100 },
+                { duration: '1m', target: 400 },
+                { duration: '1m', target: 400 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        http_req_duration: ['p(95)<500'],
+    },
+};
+
+export function setup() {
+    const res = http.post(`${BASE_URL}/api/auth/login`,
+        JSON.stringify({ username: __ENV.USERNAME, password: __ENV.PASSWORD }),
+        { headers: { 'Content-Type': 'application/json' } });
+    check(res, { 'logged in': (r) => r.status === 200 });
+    return { token: res.cookies.authToken[0].value };
+}
+
+export default function (data) {
+    const params = { headers: { Cookie: `authToken=${data.token}` } };
+
+    check(http.get(`${BASE_URL}/api/products?category=${CATEGORY}&size=20`, params),
+        { 'products 200': (r) => r.status === 200 });
+    check(http.get(`${BASE_URL}/api/cart/items/count`, params),
+        { 'cart count 200': (r) => r.status === 200 });
+    check(http.get(`${BASE_URL}/api/cart/items`, params),
+        { 'cart 200': (r) => r.status === 200 });
+    check(http.get(`${BASE_URL}/api/orders?size=20`, params),
+        { 'orders 200': (r) => r.status === 200 });
+
+    sleep(0.5);
+}
@@ -0,0 +1,126 @@
+package com.example.demo.controllers;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.demo.dtos.ProductListView;
+import com.example.demo.dtos.ProductView;
+import com.example.demo.dtos.UserSummary;
+import com.example.demo.entities.Product;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Compares the ways of writing the GET /api/products body: the former
+ * HashMap tree, the record DTOs and the streaming generator. Run with
+ * {@code -prof gc} to see allocation per operation next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductListSerializationBenchmark {
+
+    // Default catalog.export.chunk-size
+    private static final int CHUNK_SIZE = 500;
+
+    @Param({ "50", "500" })
+    private int productCount;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().build();
+    private final UserSummary user = new UserSummary("customer", "CUSTOMER");
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+
+    private List<Product> products;
+    private Map<Integer, List<String>> imagesByProduct;
+
+    @Setup
+    public void setUp() {
+        products = new ArrayList<>(productCount);
+        imagesByProduct = new HashMap<>();
+        for (int i = 1; i <= productCount; i++) {
+            products.add(new Product(i, "product-" + i, "description of product " + i, new BigDecimal("499.99"), 25,
+                    null, null, null));
+            imagesByProduct.put(i, List.of("https://img.example.com/" + i + "/1.png",
+                    "https://img.example.com/" + i + "/2.png"));
+        }
+    }
+
+    @Benchmark
+    public int hashMapTree() {
+        Map<String, Object> response = new HashMap<>();
+        Map<String, String> userInfo = new HashMap<>();
+        userInfo.put("name", user.name());
+        userInfo.put("role", user.role());
+        response.put("user", userInfo);
+        List<Map<String, Object>> productList = new ArrayList<>();
+        for (Product product : products) {
+            Map<String, Object> productDetails = new HashMap<>();
+            productDetails.put("product_id", product.getProductId());
+            productDetails.put("name", product.getName());
+            productDetails.put("description", product.getDescription());
+            productDetails.put("price", product.getPrice());
+            productDetails.put("stock", product.getStock());
+            productDetails.put("images", imagesByProduct.getOrDefault(product.getProductId(), List.of()));
+            productList.add(productDetails);
+        }
+        response.put("products", productList);
+        return write(response);
+    }
+
+    @Benchmark
+    public int recordDtos() {
+        List<ProductView> productList = new ArrayList<>(products.size());
+        for (Product product : products) {
+            productList.add(new ProductView(product.getProductId(), product.getName(), product.getDescription(),
+                    product.getPrice(), product.getStock(),
+                    imagesByProduct.getOrDefault(product.getProductId(), List.of())));
+        }
+        return write(new ProductListView(user, productList, null));
+    }
+
+    @Benchmark
+    public int streamingGenerator() {
+        out.reset();
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            // Same sequence as ProductController.streamProducts: one flush per export chunk
+            StreamingJsonWriters.startProductList(generator, user);
+            for (int start = 0; start < products.size(); start += CHUNK_SIZE) {
+                for (Product product : products.subList(start, Math.min(start + CHUNK_SIZE, products.size()))) {
+                    StreamingJsonWriters.writeProduct(generator, product,
+                            imagesByProduct.getOrDefault(product.getProductId(), List.of()));
+                }
+                generator.flush();
+            }
+            StreamingJsonWriters.endProductList(generator);
+        }
+        return out.size();
+    }
+
+    private int write(Object body) {
+        out.reset();
+        objectMapper.writeValue(out, body);
+        return out.size();
+    }
+}
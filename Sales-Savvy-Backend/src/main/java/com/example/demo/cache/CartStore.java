@@ -0,0 +1,390 @@
+package com.example.demo.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.dtos.CartOperation;
+import com.example.demo.dtos.CartQuantity;
+import com.example.demo.repositories.CartRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory cart state with write-behind to cart_items.
+ *
+ * Each user's cart is loaded once and then changed in memory; the products
+ * whose quantity changed are marked dirty and written in one batch by
+ * {@link #flushDirty()}, which runs every {@code cart.store.flush-interval-ms}.
+ * Repeated clicks on the same product therefore collapse into one row
+ * write, and a change reaches the database at most one flush interval
+ * later. Code that reads cart_items directly must call {@link #flush(int)}
+ * first.
+ *
+ * A product that was only added to since the last flush is written as an
+ * increment ({@code quantity = quantity + n}), which stays exact even if
+ * the row changed underneath; a product whose quantity was set or removed
+ * is written as its absolute value.
+ *
+ * Carts are kept in shards keyed by user ID so users in different shards
+ * never contend. The store assumes one application instance serves a
+ * user's cart; with several instances, requests must be routed by user.
+ */
+@Component
+public class CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    private final CartRepository cartRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Shard[] shards;
+    private final long idleMillis;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder changes = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+
+    public CartStore(CartRepository cartRepository,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${cart.store.shards:64}") int shardCount,
+                     @Value("${cart.store.idle-seconds:1800}") long idleSeconds) {
+        this.cartRepository = cartRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idleMillis = idleSeconds * 1000;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    /** Adds {@code quantity} to the product's current quantity. */
+    public void add(int userId, int productId, int quantity) {
+        update(userId, cart -> cart.add(productId, quantity));
+    }
+
+    /** Sets the product's quantity if it is in the cart; zero removes it. */
+    public void updateIfPresent(int userId, int productId, int quantity) {
+        update(userId, cart -> {
+            if (cart.quantities.containsKey(productId)) {
+                cart.set(productId, quantity);
+            }
+        });
+    }
+
+    public void remove(int userId, int productId) {
+        update(userId, cart -> cart.set(productId, 0));
+    }
+
+    /**
+     * Applies all operations at once: no other change to the cart can
+     * interleave and readers see either none or all of them. The operations
+     * must already be validated.
+     */
+    public void applyAll(int userId, List<CartOperation> operations) {
+        update(userId, cart -> {
+            for (CartOperation operation : operations) {
+                int productId = operation.productId();
+                switch (operation.type()) {
+                    case ADD -> cart.add(productId, operation.quantityOrDefault());
+                    case SET -> cart.set(productId, operation.quantityOrDefault());
+                    case REMOVE -> cart.set(productId, 0);
+                }
+            }
+        });
+    }
+
+    /** Current quantities by product, in the order they were added. */
+    public Map<Integer, Integer> quantities(int userId) {
+        return read(userId, cart -> new LinkedHashMap<>(cart.quantities));
+    }
+
+    /**
+     * Total number of items in the cart. Kept up to date by every change, so
+     * only the first call for a cart that is not in memory reads the database.
+     */
+    public int totalQuantity(int userId) {
+        return read(userId, cart -> cart.total);
+    }
+
+    /**
+     * Writes the user's pending changes to cart_items. Joins the caller's
+     * transaction if there is one.
+     */
+    public void flush(int userId) {
+        Shard shard = shard(userId);
+        UserCart cart = shard.withLock(carts -> carts.get(userId));
+        if (cart == null) {
+            return;
+        }
+
+        // One flush per cart at a time, so an older snapshot can never be
+        // written after a newer one
+        synchronized (cart.flushLock) {
+            Pending pending = shard.withLock(carts -> cart.takePending());
+            if (pending.isEmpty()) {
+                return;
+            }
+            boolean[] registered = new boolean[1];
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    cartRepository.writeCartLines(userId, pending.quantities());
+                    cartRepository.addQuantities(userId, pending.increments());
+                    // When joining the caller's transaction the write only
+                    // counts once that commits
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int completionStatus) {
+                            if (completionStatus != STATUS_COMMITTED) {
+                                flushFailures.increment();
+                                restore(shard, cart, pending);
+                            }
+                        }
+                    });
+                    registered[0] = true;
+                });
+                flushes.increment();
+                rowsWritten.add(pending.quantities().size() + pending.increments().size());
+            } catch (RuntimeException e) {
+                if (!registered[0]) {
+                    flushFailures.increment();
+                    restore(shard, cart, pending);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Empties the user's cart in memory once the current transaction
+     * commits, for when the transaction emptied cart_items, e.g. checkout.
+     * Changes not yet written are discarded.
+     */
+    public void clearAfterCommit(int userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            clear(userId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clear(userId);
+            }
+        });
+    }
+
+    /**
+     * Writes every cart with pending changes and drops carts that have been
+     * idle and clean for {@code cart.store.idle-seconds}.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:1000}")
+    public void flushDirty() {
+        long idleBefore = System.currentTimeMillis() - idleMillis;
+        List<Integer> dirtyUsers = new ArrayList<>();
+        for (Shard shard : shards) {
+            shard.withLock(carts -> {
+                carts.entrySet().removeIf(e -> !e.getValue().isDirty() && e.getValue().lastAccess < idleBefore);
+                carts.forEach((userId, cart) -> {
+                    if (cart.isDirty()) {
+                        dirtyUsers.add(userId);
+                    }
+                });
+                return null;
+            });
+        }
+
+        for (Integer userId : dirtyUsers) {
+            try {
+                flush(userId);
+            } catch (RuntimeException e) {
+                logger.error("Failed to write cart of user {}; will retry", userId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushDirty();
+    }
+
+    public Map<String, Object> stats() {
+        int carts = 0;
+        int dirtyCarts = 0;
+        for (Shard shard : shards) {
+            int[] counts = shard.withLock(map -> new int[] {
+                    map.size(), (int) map.values().stream().filter(UserCart::isDirty).count() });
+            carts += counts[0];
+            dirtyCarts += counts[1];
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("carts", carts);
+        stats.put("dirty_carts", dirtyCarts);
+        stats.put("loads", loads.sum());
+        stats.put("changes", changes.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("rows_written", rowsWritten.sum());
+        stats.put("flush_failures", flushFailures.sum());
+        return stats;
+    }
+
+    private void restore(Shard shard, UserCart cart, Pending pending) {
+        shard.withLock(carts -> {
+            cart.restore(pending);
+            return null;
+        });
+    }
+
+    private void clear(int userId) {
+        shard(userId).withLock(carts -> carts.put(userId, new UserCart()));
+    }
+
+    private void update(int userId, Consumer<UserCart> change) {
+        read(userId, cart -> {
+            change.accept(cart);
+            changes.increment();
+            return null;
+        });
+    }
+
+    private <T> T read(int userId, Function<UserCart, T> action) {
+        Shard shard = shard(userId);
+        while (true) {
+            UserCart cart = shard.withLock(carts -> carts.get(userId));
+            if (cart == null) {
+                // Load outside the lock so a slow query does not block the shard
+                cart = load(userId);
+                UserCart loaded = cart;
+                cart = shard.withLock(carts -> carts.computeIfAbsent(userId, id -> loaded));
+            }
+            UserCart current = cart;
+            Object[] result = shard.withLock(carts -> {
+                // The cart may have been dropped in between; start over then
+                if (carts.get(userId) != current) {
+                    return null;
+                }
+                current.lastAccess = System.currentTimeMillis();
+                return new Object[] { action.apply(current) };
+            });
+            if (result != null) {
+                @SuppressWarnings("unchecked")
+                T value = (T) result[0];
+                return value;
+            }
+        }
+    }
+
+    private UserCart load(int userId) {
+        loads.increment();
+        UserCart cart = new UserCart();
+        for (CartQuantity line : cartRepository.findCartQuantities(userId)) {
+            cart.quantities.merge(line.productId(), line.quantity(), Integer::sum);
+            cart.total += line.quantity();
+        }
+        return cart;
+    }
+
+    private Shard shard(int userId) {
+        return shards[Math.floorMod(userId, shards.length)];
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Integer, UserCart> carts = new HashMap<>();
+
+        <T> T withLock(Function<Map<Integer, UserCart>, T> action) {
+            lock.lock();
+            try {
+                return action.apply(carts);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Changes taken from a cart for one flush. */
+    private record Pending(Map<Integer, Integer> quantities, Map<Integer, Integer> increments) {
+        boolean isEmpty() {
+            return quantities.isEmpty() && increments.isEmpty();
+        }
+    }
+
+    /** One user's cart. All fields except flushLock are guarded by the shard lock. */
+    private static final class UserCart {
+        private final Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        private int total;
+        // Products whose quantity was set or removed since the last flush
+        private final Set<Integer> dirty = new HashSet<>();
+        // Products that were only added to since the last flush, with the amount added
+        private final Map<Integer, Integer> increments = new HashMap<>();
+        private final Object flushLock = new Object();
+        private long lastAccess = System.currentTimeMillis();
+
+        void add(int productId, int quantity) {
+            int updated = quantities.getOrDefault(productId, 0) + quantity;
+            if (updated <= 0) {
+                set(productId, 0);
+                return;
+            }
+            total += quantity;
+            quantities.put(productId, updated);
+            if (!dirty.contains(productId)) {
+                increments.merge(productId, quantity, Integer::sum);
+            }
+        }
+
+        void set(int productId, int quantity) {
+            Integer previous = quantity > 0 ? quantities.put(productId, quantity) : quantities.remove(productId);
+            total += Math.max(quantity, 0) - (previous == null ? 0 : previous);
+            dirty.add(productId);
+            increments.remove(productId);
+        }
+
+        boolean isDirty() {
+            return !dirty.isEmpty() || !increments.isEmpty();
+        }
+
+        Pending takePending() {
+            Map<Integer, Integer> absolute = new LinkedHashMap<>();
+            for (Integer productId : dirty) {
+                absolute.put(productId, quantities.getOrDefault(productId, 0));
+            }
+            Pending pending = new Pending(absolute, new LinkedHashMap<>(increments));
+            dirty.clear();
+            increments.clear();
+            return pending;
+        }
+
+        /** Puts back changes whose write failed. Later sets win over failed increments. */
+        void restore(Pending pending) {
+            for (Integer productId : pending.quantities().keySet()) {
+                dirty.add(productId);
+                increments.remove(productId);
+            }
+            pending.increments().forEach((productId, quantity) -> {
+                if (!dirty.contains(productId)) {
+                    increments.merge(productId, quantity, Integer::sum);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.demo.cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.ProductImage;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductImageRepository;
+import com.example.demo.repositories.ProductRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Read-through cache for the rarely changing catalog: products by id,
+ * products by category, the first image of a product and categories by name.
+ *
+ * Cached entities are detached and shared between requests, so callers must
+ * treat them as read-only. Code that changes a product (stock, price, ...)
+ * must call {@link #invalidateProductsAfterCommit} so readers stop seeing the
+ * old values once the change is committed. Invalidation also evicts the
+ * products from the Hibernate second-level cache, which does not see changes
+ * made with plain SQL.
+ */
+@Component
+public class CatalogCache {
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductImageRepository productImageRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ExpiringLruCache<Integer, Product> productsById;
+    private final ExpiringLruCache<Integer, List<Product>> productsByCategory;
+    private final ExpiringLruCache<Integer, Optional<String>> firstImageByProduct;
+    private final ExpiringLruCache<String, Optional<Category>> categoriesByName;
+
+    public CatalogCache(ProductRepository productRepository,
+                        CategoryRepository categoryRepository,
+                        ProductImageRepository productImageRepository,
+                        EntityManagerFactory entityManagerFactory,
+                        @Value("${catalog.cache.max-size:10000}") int maxSize,
+                        @Value("${catalog.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.productImageRepository = productImageRepository;
+        this.entityManagerFactory = entityManagerFactory;
+
+        long ttlMillis = ttlSeconds * 1000;
+        this.productsById = new ExpiringLruCache<>(maxSize, ttlMillis);
+        this.productsByCategory = new ExpiringLruCache<>(maxSize, ttlMillis);
+        this.firstImageByProduct = new ExpiringLruCache<>(maxSize, ttlMillis);
+        this.categoriesByName = new ExpiringLruCache<>(maxSize, ttlMillis);
+    }
+
+    public Optional<Product> getProduct(int productId) {
+        Product product = productsById.get(productId);
+        if (product != null) {
+            return Optional.of(product);
+        }
+        Optional<Product> loaded = productRepository.findById(productId);
+        loaded.ifPresent(p -> productsById.put(productId, p));
+        return loaded;
+    }
+
+    public List<Product> getProductsByCategory(int categoryId) {
+        List<Product> products = productsByCategory.get(categoryId);
+        if (products == null) {
+            products = List.copyOf(productRepository.findByCategory_CategoryId(categoryId));
+            productsByCategory.put(categoryId, products);
+        }
+        return products;
+    }
+
+    public Optional<String> getFirstImageUrl(int productId) {
+        Optional<String> imageUrl = firstImageByProduct.get(productId);
+        if (imageUrl == null) {
+            List<ProductImage> images = productImageRepository.findByProduct_ProductId(productId);
+            imageUrl = images.isEmpty() ? Optional.empty() : Optional.of(images.get(0).getImageUrl());
+            firstImageByProduct.put(productId, imageUrl);
+        }
+        return imageUrl;
+    }
+
+    public Optional<Category> getCategoryByName(String categoryName) {
+        Optional<Category> category = categoriesByName.get(categoryName);
+        if (category == null) {
+            category = categoryRepository.findByCategoryName(categoryName);
+            categoriesByName.put(categoryName, category);
+        }
+        return category;
+    }
+
+    public void invalidateProducts(Collection<Integer> productIds) {
+        Set<Integer> ids = Set.copyOf(productIds);
+        for (Integer productId : ids) {
+            productsById.invalidate(productId);
+            firstImageByProduct.invalidate(productId);
+            entityManagerFactory.getCache().evict(Product.class, productId);
+        }
+        productsByCategory.invalidateIf((categoryId, products) ->
+                products.stream().anyMatch(p -> ids.contains(p.getProductId())));
+    }
+
+    /**
+     * Invalidates the products once the current transaction commits, so a
+     * concurrent reader cannot re-cache the old row in between. Outside a
+     * transaction the products are invalidated immediately.
+     */
+    public void invalidateProductsAfterCommit(Collection<Integer> productIds) {
+        List<Integer> ids = List.copyOf(productIds);
+        AfterCommit.run(() -> invalidateProducts(ids));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("products_by_id", productsById.stats());
+        stats.put("products_by_category", productsByCategory.stats());
+        stats.put("first_image_by_product", firstImageByProduct.stats());
+        stats.put("categories_by_name", categoriesByName.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.demo.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Per-region view of Hibernate's second-level and query cache statistics.
+ * Counters are only collected while hibernate.generate_statistics is on.
+ */
+@Component
+public class HibernateCacheStatistics {
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    private final Statistics statistics;
+
+    public HibernateCacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public Map<String, Object> stats() {
+        Set<String> regionNames = new TreeSet<>(Set.of(statistics.getSecondLevelCacheRegionNames()));
+        regionNames.add(QUERY_RESULTS_REGION);
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, regionStats(region));
+            }
+        }
+
+        Map<String, Object> queryCache = new LinkedHashMap<>();
+        queryCache.put("hits", statistics.getQueryCacheHitCount());
+        queryCache.put("misses", statistics.getQueryCacheMissCount());
+        queryCache.put("puts", statistics.getQueryCachePutCount());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("statistics_enabled", statistics.isStatisticsEnabled());
+        stats.put("regions", regions);
+        stats.put("query_cache", queryCache);
+        return stats;
+    }
+
+    private Map<String, Object> regionStats(CacheRegionStatistics region) {
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", region.getPutCount());
+        stats.put("hit_ratio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.put("elements_in_memory", region.getElementCountInMemory());
+        return stats;
+    }
+}
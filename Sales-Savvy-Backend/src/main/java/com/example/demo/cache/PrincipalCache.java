@@ -0,0 +1,60 @@
+package com.example.demo.cache;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dtos.AuthenticatedPrincipal;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.UserRepository;
+
+/**
+ * Read-through cache of authenticated principals keyed by username, so the
+ * authentication filter only loads the User row on a miss. Code that changes
+ * a user's username or role must write the new state through {@link #put},
+ * or {@link #putAfterCommit} when the change is part of a transaction.
+ */
+@Component
+public class PrincipalCache {
+
+    private final ExpiringLruCache<String, AuthenticatedPrincipal> cache;
+    private final UserRepository userRepository;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${auth.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${auth.principal-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = new ExpiringLruCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    public Optional<AuthenticatedPrincipal> get(String username) {
+        AuthenticatedPrincipal principal = cache.get(username);
+        if (principal != null) {
+            return Optional.of(principal);
+        }
+        Optional<AuthenticatedPrincipal> loaded =
+                userRepository.findByUsername(username).map(AuthenticatedPrincipal::of);
+        loaded.ifPresent(p -> cache.put(username, p));
+        return loaded;
+    }
+
+    public void put(User user) {
+        cache.put(user.getUsername(), AuthenticatedPrincipal.of(user));
+    }
+
+    // Publishes the user once the surrounding transaction commits, never a role that may roll back
+    public void putAfterCommit(User user) {
+        AuthenticatedPrincipal principal = AuthenticatedPrincipal.of(user);
+        AfterCommit.run(() -> cache.put(principal.username(), principal));
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.demo.cache;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * In-memory inverted index over product name, category and description.
+ *
+ * Text is split into lower-case words with accents removed. Each word maps to the products
+ * containing it, weighted by the field it came from (name over category over
+ * description). The words are kept sorted, so a query word also matches the
+ * words it is a prefix of, and words of similar length that are one or two
+ * edits away. Products are ranked by how many query words they match, then
+ * by the summed weights.
+ *
+ * The index is built once the application has started and then kept current
+ * by {@link ProductSearchIndexListener}, which applies every committed
+ * product insert, update and delete. Changes made with plain SQL are not
+ * seen; none of those touch the indexed fields.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    // Share of a word's weight credited to prefix and one- or two-edit matches
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float ONE_EDIT_FACTOR = 0.4f;
+    private static final float TWO_EDIT_FACTOR = 0.25f;
+
+    // Bounds the work a very short prefix such as "a" can cause
+    private static final int MAX_PREFIX_TERMS = 64;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MIN_TWO_EDIT_LENGTH = 8;
+
+    private static final int BUILD_CLEAR_INTERVAL = 500;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+    private final Map<Integer, Map<String, Float>> termsByProduct = new HashMap<>();
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+
+    public ProductSearchIndex(ProductRepository productRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Indexes the whole catalog through the export cursor, clearing the
+     * persistence context as it goes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.nanoTime();
+        int indexed = transactionTemplate.execute(status -> {
+            int count = 0;
+            try (Stream<Product> products = productRepository.streamAllForExport()) {
+                Iterator<Product> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    put(iterator.next());
+                    if (++count % BUILD_CLEAR_INTERVAL == 0) {
+                        entityManager.clear();
+                    }
+                }
+            }
+            return count;
+        });
+        log.info("Indexed {} products for search in {} ms", indexed, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Indexes the product's current name, category and description once the
+     * current transaction commits, replacing what was indexed for it before.
+     */
+    public void putAfterCommit(Product product) {
+        Integer productId = product.getProductId();
+        Map<String, Float> terms = termsOf(product);
+        afterCommit(() -> replace(productId, terms));
+    }
+
+    public void removeAfterCommit(Integer productId) {
+        afterCommit(() -> replace(productId, Map.of()));
+    }
+
+    /**
+     * Returns the IDs of the best matching products, best first.
+     */
+    public List<Integer> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        long started = System.nanoTime();
+        Map<Integer, Match> matches = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String queryTerm : queryTerms) {
+                Map<Integer, Float> termScores = scoreTerm(queryTerm);
+                termScores.forEach((productId, score) -> matches.computeIfAbsent(productId, id -> new Match()).add(score));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Map.Entry<Integer, Match>> ranked = new ArrayList<>(matches.entrySet());
+        ranked.sort((a, b) -> {
+            int byTerms = Integer.compare(b.getValue().terms, a.getValue().terms);
+            if (byTerms != 0) {
+                return byTerms;
+            }
+            int byScore = Float.compare(b.getValue().score, a.getValue().score);
+            return byScore != 0 ? byScore : Integer.compare(a.getKey(), b.getKey());
+        });
+        List<Integer> productIds = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            productIds.add(ranked.get(i).getKey());
+        }
+        searches.increment();
+        searchNanos.add(System.nanoTime() - started);
+        return productIds;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("products", termsByProduct.size());
+            stats.put("terms", postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        long searchCount = searches.sum();
+        stats.put("searches", searchCount);
+        stats.put("avg_search_micros", searchCount == 0 ? 0 : searchNanos.sum() / searchCount / 1000);
+        stats.put("updates", updates.sum());
+        return stats;
+    }
+
+    // Best score per product for one query word; callers hold the read lock
+    private Map<Integer, Float> scoreTerm(String queryTerm) {
+        Map<Integer, Float> scores = new HashMap<>();
+        Map<Integer, Float> exact = postings.get(queryTerm);
+        if (exact != null) {
+            exact.forEach((productId, weight) -> scores.merge(productId, weight, Math::max));
+        }
+
+        NavigableMap<String, Map<Integer, Float>> completions =
+                postings.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false);
+        int scanned = 0;
+        for (Map<Integer, Float> products : completions.values()) {
+            if (++scanned > MAX_PREFIX_TERMS) {
+                break;
+            }
+            products.forEach((productId, weight) -> scores.merge(productId, weight * PREFIX_FACTOR, Math::max));
+        }
+
+        if (queryTerm.length() >= MIN_FUZZY_LENGTH) {
+            int maxEdits = queryTerm.length() >= MIN_TWO_EDIT_LENGTH ? 2 : 1;
+            // Typos rarely hit the first letter, so only words sharing it are compared
+            String first = queryTerm.substring(0, 1);
+            for (Map.Entry<String, Map<Integer, Float>> entry
+                    : postings.subMap(first, true, first + Character.MAX_VALUE, false).entrySet()) {
+                String term = entry.getKey();
+                if (Math.abs(term.length() - queryTerm.length()) > maxEdits || term.startsWith(queryTerm)) {
+                    continue;
+                }
+                int edits = editDistance(queryTerm, term, maxEdits);
+                if (edits <= maxEdits) {
+                    float factor = edits == 1 ? ONE_EDIT_FACTOR : TWO_EDIT_FACTOR;
+                    entry.getValue().forEach((productId, weight) ->
+                            scores.merge(productId, weight * factor, Math::max));
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void put(Product product) {
+        replace(product.getProductId(), termsOf(product));
+    }
+
+    private void replace(Integer productId, Map<String, Float> terms) {
+        lock.writeLock().lock();
+        try {
+            Map<String, Float> previous = termsByProduct.remove(productId);
+            if (previous != null) {
+                for (String term : previous.keySet()) {
+                    Map<Integer, Float> products = postings.get(term);
+                    products.remove(productId);
+                    if (products.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            if (!terms.isEmpty()) {
+                termsByProduct.put(productId, terms);
+                terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(productId, weight));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        updates.increment();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    // Each word keeps the weight of the strongest field it appears in
+    private static Map<String, Float> termsOf(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+        if (product.getCategory() != null) {
+            addTerms(terms, product.getCategory().getCategoryName(), CATEGORY_WEIGHT);
+        }
+        addTerms(terms, product.getName(), NAME_WEIGHT);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    /**
+     * Levenshtein distance between {@code a} and {@code b}, or
+     * {@code maxEdits + 1} as soon as it is known to exceed {@code maxEdits}.
+     */
+    static int editDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    private static final class Match {
+        private int terms;
+        private float score;
+
+        void add(float termScore) {
+            terms++;
+            score += termScore;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.demo.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.example.demo.entities.Product;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Feeds product changes made through JPA into the {@link ProductSearchIndex}.
+ * Hibernate creates this listener through Spring, which is how the index gets
+ * injected; it is looked up lazily because the index itself needs the
+ * entity manager factory that creates this listener.
+ */
+public class ProductSearchIndexListener {
+
+    private final ObjectProvider<ProductSearchIndex> searchIndex;
+
+    public ProductSearchIndexListener(ObjectProvider<ProductSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void productSaved(Product product) {
+        searchIndex.ifAvailable(index -> index.putAfterCommit(product));
+    }
+
+    @PostRemove
+    public void productRemoved(Product product) {
+        searchIndex.ifAvailable(index -> index.removeAfterCommit(product.getProductId()));
+    }
+}
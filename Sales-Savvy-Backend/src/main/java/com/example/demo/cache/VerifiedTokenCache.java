@@ -0,0 +1,64 @@
+package com.example.demo.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dtos.TokenClaims;
+
+/**
+ * Remembers tokens that were already checked against the jwt_tokens table so
+ * the authentication filter does not query MySQL on every request.
+ *
+ * Entries are keyed by the SHA-256 of the token (the raw JWT is never kept)
+ * and expire at the token's own expiry or after the configured TTL, whichever
+ * comes first. A hit means the exact same token string was verified before,
+ * so its signature does not need to be checked again.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final ExpiringLruCache<String, TokenClaims> cache;
+
+    public VerifiedTokenCache(@Value("${auth.token-cache.max-size:10000}") int maxSize,
+                              @Value("${auth.token-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new ExpiringLruCache<>(maxSize, ttlSeconds * 1000);
+    }
+
+    public TokenClaims get(String token) {
+        return cache.get(hash(token));
+    }
+
+    public void put(String token, TokenClaims claims, Instant expiresAt) {
+        cache.put(hash(token), claims, expiresAt.toEpochMilli());
+    }
+
+    // Drop every cached token of the user, e.g. on logout
+    public void evictUser(String username) {
+        cache.invalidateIf((key, claims) -> claims.username().equals(username));
+    }
+
+    // Evicting before the token rows are deleted would let a request re-cache a revoked token
+    public void evictUserAfterCommit(String username) {
+        AfterCommit.run(() -> evictUser(username));
+    }
+
+    public Map<String, Object> stats() {
+        return cache.stats();
+    }
+
+    public static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+
+@Configuration
+public class RazorpayConfig {
+
+    /**
+     * One client for the whole application. Every RazorpayClient constructor
+     * rebuilds the SDK's shared HTTP client, throwing away its connection pool.
+     */
+    @Bean
+    public RazorpayClient razorpayClient(@Value("${razorpay.key_id}") String keyId,
+                                         @Value("${razorpay.key_secret}") String keySecret) throws RazorpayException {
+        return new RazorpayClient(keyId, keySecret);
+    }
+}
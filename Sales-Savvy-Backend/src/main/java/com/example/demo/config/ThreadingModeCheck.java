@@ -0,0 +1,68 @@
+package com.example.demo.config;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Checks the threading mode against the connection pool at startup.
+ *
+ * With platform threads, Tomcat's worker pool caps how many requests can
+ * wait for a database connection. With virtual threads nothing does, so
+ * every blocked request waits on Hikari instead. The pool must stay small,
+ * sized to the database rather than the request load, and waiting for a
+ * connection must time out quickly. Startup fails when virtual threads are
+ * enabled on a JVM without them or with a long connection timeout.
+ */
+@Component
+public class ThreadingModeCheck {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingModeCheck.class);
+
+    private final DataSource dataSource;
+    private final boolean virtualThreads;
+    private final long maxConnectionTimeoutMillis;
+
+    public ThreadingModeCheck(DataSource dataSource,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                              @Value("${db.pool.virtual-threads.max-connection-timeout-ms:10000}") long maxConnectionTimeoutMillis) {
+        this.dataSource = dataSource;
+        this.virtualThreads = virtualThreads;
+        this.maxConnectionTimeoutMillis = maxConnectionTimeoutMillis;
+    }
+
+    @PostConstruct
+    public void check() throws SQLException {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true needs Java 21 or later, but this JVM is "
+                    + Runtime.version() + ". Build with -Pjdk21 and run on Java 21, or disable virtual threads.");
+        }
+        if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+            return;
+        }
+
+        HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+        int poolSize = hikari.getMaximumPoolSize();
+        int recommended = Runtime.getRuntime().availableProcessors() * 2 + 1;
+        if (poolSize > recommended * 2) {
+            logger.warn("Connection pool size {} is well above the recommended {} (2 x cores + 1); "
+                    + "a larger pool adds database contention, not throughput", poolSize, recommended);
+        }
+        if (virtualThreads && hikari.getConnectionTimeout() > maxConnectionTimeoutMillis) {
+            throw new IllegalStateException("With virtual threads, spring.datasource.hikari.connection-timeout ("
+                    + hikari.getConnectionTimeout() + " ms) must not exceed "
+                    + maxConnectionTimeoutMillis + " ms, otherwise requests pile up waiting for connections");
+        }
+        logger.info("Request threads: {}, connection pool size: {}",
+                virtualThreads ? "virtual" : "platform", poolSize);
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.demo.controllers;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.services.ExportFormat;
+import com.example.demo.services.OrderLedgerExportService;
+import com.example.demo.services.SalesReportService;
+
+/**
+ * Revenue reports for admins, read from the sales rollup tables, and the
+ * order ledger export. Paths under /admin are restricted to the ADMIN role
+ * by the authentication filter.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+@RequestMapping("/admin/business")
+public class AdminBusinessController {
+
+    private final SalesReportService salesReportService;
+    private final OrderLedgerExportService orderLedgerExportService;
+
+    public AdminBusinessController(SalesReportService salesReportService,
+                                   OrderLedgerExportService orderLedgerExportService) {
+        this.salesReportService = salesReportService;
+        this.orderLedgerExportService = orderLedgerExportService;
+    }
+
+    @GetMapping("/daily")
+    public ResponseEntity<?> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(salesReportService.getDailySales(date));
+    }
+
+    /**
+     * Lists the days between {@code from} and {@code to}, both inclusive, that
+     * had sales.
+     */
+    @GetMapping("/days")
+    public ResponseEntity<?> getDailySales(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(salesReportService.getDailySales(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/monthly")
+    public ResponseEntity<?> getMonthlySales(@RequestParam int year, @RequestParam int month) {
+        try {
+            return ResponseEntity.ok(salesReportService.getMonthlySales(year, month));
+        } catch (DateTimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/yearly")
+    public ResponseEntity<?> getYearlySales(@RequestParam int year) {
+        return ResponseEntity.ok(salesReportService.getYearlySales(year));
+    }
+
+    @GetMapping("/overall")
+    public ResponseEntity<?> getOverallSales() {
+        return ResponseEntity.ok(salesReportService.getOverallSales());
+    }
+
+    /**
+     * Lists the best-selling products between {@code from} and {@code to},
+     * both inclusive, ranked by units sold or by revenue.
+     */
+    @GetMapping("/top-products")
+    public ResponseEntity<?> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "units") String by,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(salesReportService.getTopProducts(from, to,
+                    SalesReportService.Ranking.from(by), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Recomputes the rollups from the orders table, e.g. after importing
+     * orders or when the tables are first created. Best run while checkouts
+     * are quiet.
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups() {
+        salesReportService.rebuildRollups();
+        return ResponseEntity.ok(salesReportService.getOverallSales());
+    }
+
+    /**
+     * Streams every successful order with its items as NDJSON or CSV. To
+     * resume an interrupted download, pass the created_at and order_id of
+     * the last complete order received.
+     */
+    @GetMapping("/ledger")
+    public ResponseEntity<?> exportLedger(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) String afterOrderId) {
+        try {
+            ExportFormat exportFormat = ExportFormat.from(format);
+            OrderLedgerExportService.checkCheckpoint(afterCreatedAt, afterOrderId);
+
+            StreamingResponseBody body = out ->
+                    orderLedgerExportService.export(exportFormat, afterCreatedAt, afterOrderId, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"order-ledger." + exportFormat.extension() + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.demo.controllers;
+
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.demo.cache.CartStore;
+import com.example.demo.cache.CatalogCache;
+import com.example.demo.cache.HibernateCacheStatistics;
+import com.example.demo.cache.PrincipalCache;
+import com.example.demo.cache.ProductSearchIndex;
+import com.example.demo.cache.VerifiedTokenCache;
+import com.example.demo.services.PaymentGatewayClient;
+import com.example.demo.services.TokenReaperService;
+
+/**
+ * Read-only operational counters for admins. Paths under /admin are
+ * restricted to the ADMIN role by the authentication filter.
+ */
+@RestController
+@CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
+@RequestMapping("/admin/metrics")
+public class AdminMetricsController {
+
+    private final VerifiedTokenCache tokenCache;
+    private final PrincipalCache principalCache;
+    private final CatalogCache catalogCache;
+    private final HibernateCacheStatistics hibernateCacheStatistics;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final CartStore cartStore;
+    private final ProductSearchIndex productSearchIndex;
+    private final TokenReaperService tokenReaperService;
+
+    public AdminMetricsController(VerifiedTokenCache tokenCache, PrincipalCache principalCache,
+                                  CatalogCache catalogCache, HibernateCacheStatistics hibernateCacheStatistics,
+                                  PaymentGatewayClient paymentGatewayClient, CartStore cartStore,
+                                  ProductSearchIndex productSearchIndex, TokenReaperService tokenReaperService) {
+        this.tokenCache = tokenCache;
+        this.principalCache = principalCache;
+        this.catalogCache = catalogCache;
+        this.hibernateCacheStatistics = hibernateCacheStatistics;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.cartStore = cartStore;
+        this.productSearchIndex = productSearchIndex;
+        this.tokenReaperService = tokenReaperService;
+    }
+
+    @GetMapping("/token-cache")
+    public ResponseEntity<Map<String, Object>> getTokenCacheStats() {
+        return ResponseEntity.ok(tokenCache.stats());
+    }
+
+    @GetMapping("/principal-cache")
+    public ResponseEntity<Map<String, Object>> getPrincipalCacheStats() {
+        return ResponseEntity.ok(principalCache.stats());
+    }
+
+    @GetMapping("/catalog-cache")
+    public ResponseEntity<Map<String, Object>> getCatalogCacheStats() {
+        return ResponseEntity.ok(catalogCache.stats());
+    }
+
+    @GetMapping("/hibernate-cache")
+    public ResponseEntity<Map<String, Object>> getHibernateCacheStats() {
+        return ResponseEntity.ok(hibernateCacheStatistics.stats());
+    }
+
+    @GetMapping("/payment-gateway")
+    public ResponseEntity<Map<String, Object>> getPaymentGatewayStats() {
+        return ResponseEntity.ok(paymentGatewayClient.stats());
+    }
+
+    @GetMapping("/cart-store")
+    public ResponseEntity<Map<String, Object>> getCartStoreStats() {
+        return ResponseEntity.ok(cartStore.stats());
+    }
+
+    @GetMapping("/product-search")
+    public ResponseEntity<Map<String, Object>> getProductSearchStats() {
+        return ResponseEntity.ok(productSearchIndex.stats());
+    }
+
+    @GetMapping("/jwt-tokens")
+    public ResponseEntity<Map<String, Object>> getJwtTokenStats() {
+        return ResponseEntity.ok(tokenReaperService.stats());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo.controllers;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 
 import com.example.demo.dtos.LoginRequest;
+import com.example.demo.dtos.TokenClaims;
 import com.example.demo.entities.User;
 import com.example.demo.services.AuthService;
 
@@ -85,13 +87,14 @@ public class AuthController {
             }
             
             // Validate token and extract username
-            if (!authService.validateToken(token)) {
+            Optional<TokenClaims> claims = authService.verifyToken(token);
+            if (claims.isEmpty()) {
                 Map<String, String> errorResponse = new HashMap<>();
                 errorResponse.put("message", "Invalid or expired token");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
             }
             
-            String username = authService.extractUsername(token);
+            String username = claims.get().username();
             User user = authService.getUserByUsername(username); // You'll need to add this method
             
             // Perform logout
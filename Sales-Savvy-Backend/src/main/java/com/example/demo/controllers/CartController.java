@@ -3,6 +3,7 @@ package com.example.demo.controllers;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -14,9 +15,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.example.demo.cache.PrincipalCache;
+import com.example.demo.dtos.AuthenticatedPrincipal;
+import com.example.demo.dtos.CartBulkRequest;
+import com.example.demo.dtos.CartView;
 import com.example.demo.entities.User;
-import com.example.demo.repositories.UserRepository;
 import com.example.demo.services.CartService;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,18 +34,27 @@ public class CartController {
 	private CartService cartService;
 
 	@Autowired
-	private UserRepository userRepository;
+	private PrincipalCache principalCache;
 
 	// Fetch userId from username coming from the filter and get cart item count
 	@GetMapping("/items/count")
-	public ResponseEntity<Integer> getCartItemCount(@RequestParam String username) {
+	public ResponseEntity<Integer> getCartItemCount(@RequestParam String username, WebRequest webRequest) {
 		// Fetch user by username to get the userId
-		User user = userRepository.findByUsername(username)
+		AuthenticatedPrincipal user = principalCache.get(username)
 				.orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
 
 		// Call the service to get the total cart item count
-		int count = cartService.getCartItemCount(user.getUserId());
-		return ResponseEntity.ok(count);
+		int count = cartService.getCartItemCount(user.userId());
+
+		// The badge is polled on every page; an unchanged count is answered with 304 and no body
+		String eTag = "\"" + count + "\"";
+		if (webRequest.checkNotModified(eTag)) {
+			return null;
+		}
+		return ResponseEntity.ok()
+				.cacheControl(CacheControl.noCache().cachePrivate())
+				.eTag(eTag)
+				.body(count);
 	}
 
 	
@@ -56,24 +70,24 @@ public class CartController {
 		int quantity = request.containsKey("quantity") ? (int) request.get("quantity") : 1;
 
 		// Fetch the user using username
-		User user = userRepository.findByUsername(username)
+		AuthenticatedPrincipal user = principalCache.get(username)
 				.orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
 
 		// Add the product to the cart
-		cartService.addToCart(user.getUserId(), productId, quantity);
+		cartService.addToCart(user.userId(), productId, quantity);
 		return ResponseEntity.status(HttpStatus.CREATED).build();
 	}
 	
 	// Fetch all cart items for the user (based on username)
     @GetMapping("/items")
-    public ResponseEntity<Map<String, Object>> getCartItems(HttpServletRequest request) {
+    public ResponseEntity<CartView> getCartItems(HttpServletRequest request) {
         // Fetch user by username to get the userId
     	User user= (User) request.getAttribute("authenticatedUser");
      //   User user = userRepository.findByUsername(un)
        //         .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
 
         // Call the service to get cart items for the user
-        Map<String, Object> cartItems = cartService.getCartItems(user.getUserId());
+        CartView cartItems = cartService.getCartItems(user);
         return ResponseEntity.ok(cartItems);
     }
     
@@ -85,14 +99,32 @@ public class CartController {
         int quantity = (int) request.get("quantity");
 
         // Fetch the user using username
-        User user = userRepository.findByUsername(username)
+        AuthenticatedPrincipal user = principalCache.get(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
 
         // Update the cart item quantity
-        cartService.updateCartItemQuantity(user.getUserId(), productId, quantity);
+        cartService.updateCartItemQuantity(user.userId(), productId, quantity);
         return ResponseEntity.status(HttpStatus.OK).build();
     }
 
+    // Apply a list of add/set/remove operations and return the resulting cart
+    @PostMapping("/bulk")
+    public ResponseEntity<?> applyBulk(@RequestBody CartBulkRequest bulkRequest, HttpServletRequest request) {
+        User user = (User) request.getAttribute("authenticatedUser");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "User not authenticated"));
+        }
+        if (bulkRequest.operations() == null || bulkRequest.operations().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "No operations given"));
+        }
+
+        try {
+            return ResponseEntity.ok(cartService.applyBulk(user, bulkRequest.operations()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     // Delete Cart Item
     @DeleteMapping("/delete")
     public ResponseEntity<Void> deleteCartItem(@RequestBody Map<String, Object> request) {
@@ -100,11 +132,11 @@ public class CartController {
         int productId = (int) request.get("productId");
 
         // Fetch the user using username
-        User user = userRepository.findByUsername(username)
+        AuthenticatedPrincipal user = principalCache.get(username)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with username: " + username));
 
         // Delete the cart item
-        cartService.deleteCartItem(user.getUserId(), productId);
+        cartService.deleteCartItem(user.userId(), productId);
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 }
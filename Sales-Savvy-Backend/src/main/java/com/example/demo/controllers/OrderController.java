@@ -2,12 +2,20 @@ package com.example.demo.controllers;
 
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.dtos.OrderHistoryView;
 import com.example.demo.entities.User;
 import com.example.demo.services.OrderService;
 
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
 import java.util.Map;
 
 @RestController
@@ -15,18 +23,27 @@ import java.util.Map;
 @RequestMapping("/api/orders")
 public class OrderController {
 
+	private static final int MAX_PAGE_SIZE = 100;
+
 	@Autowired
 	private OrderService orderService;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
 	/**
 	 * Fetches all successful orders for the authenticated user.
 	 *
 	 * @param request HttpServletRequest containing the authenticated user details.
+	 * @param page    Optional page number; without page and size all orders are returned.
+	 * @param size    Optional number of orders per page; each order comes with all its lines.
 	 * @return A ResponseEntity containing the user's role, username, and their
 	 *         orders.
 	 */
 	@GetMapping
-	public ResponseEntity<Map<String, Object>> getOrdersForUser(HttpServletRequest request) {
+	public ResponseEntity<?> getOrdersForUser(HttpServletRequest request,
+			@RequestParam(required = false) Integer page,
+			@RequestParam(required = false) Integer size) {
 		try {
 			// Retrieve the authenticated user from the request
 			User authenticatedUser = (User) request.getAttribute("authenticatedUser");
@@ -37,7 +54,12 @@ public class OrderController {
 			}
 
 			// Fetch orders for the user via the service layer
-			Map<String, Object> response = orderService.getOrdersForUser(authenticatedUser);
+			Pageable pageable = Pageable.unpaged();
+			if (page != null || size != null) {
+				pageable = PageRequest.of(page != null ? Math.max(page, 0) : 0,
+						size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : 20);
+			}
+			OrderHistoryView response = orderService.getOrdersForUser(authenticatedUser, pageable);
 
 			// Return the response with HTTP 200 OK
 			return ResponseEntity.ok(response);
@@ -50,4 +72,32 @@ public class OrderController {
 			return ResponseEntity.status(500).body(Map.of("error", "An unexpected error occurred"));
 		}
 	}
+
+	/**
+	 * Streams all successful orders of the authenticated user in the same JSON
+	 * shape as the unpaged history. Lines are written as rows arrive from the
+	 * database instead of being loaded into a list first.
+	 *
+	 * @param request HttpServletRequest containing the authenticated user details.
+	 * @return A ResponseEntity whose body writes the user's role, username, and
+	 *         their orders.
+	 */
+	@GetMapping(params = "stream=true")
+	public ResponseEntity<?> streamOrdersForUser(HttpServletRequest request) {
+		User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+		if (authenticatedUser == null) {
+			return ResponseEntity.status(401).body(Map.of("error", "User not authenticated"));
+		}
+
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+				StreamingJsonWriters.startOrderHistory(generator, authenticatedUser.getUsername(),
+						authenticatedUser.getRole());
+				orderService.forEachOrderLine(authenticatedUser,
+						line -> StreamingJsonWriters.writeOrderHistoryLine(generator, line));
+				StreamingJsonWriters.endOrderHistory(generator);
+			}
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+	}
 }
@@ -1,8 +1,11 @@
 package com.example.demo.controllers;
 
+import com.example.demo.dtos.CheckoutResult;
 import com.example.demo.entities.OrderItem;
 import com.example.demo.entities.User;
 import com.example.demo.repositories.UserRepository;
+import com.example.demo.services.InsufficientStockException;
+import com.example.demo.services.PaymentGatewayUnavailableException;
 import com.example.demo.services.PaymentService;
 import com.razorpay.RazorpayException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -35,7 +38,7 @@ public class PaymentController {
 	 * @return ResponseEntity with Razorpay Order ID
 	 */
 	@PostMapping("/create")
-	public ResponseEntity<String> createPaymentOrder(@RequestBody Map<String, Object> requestBody,
+	public ResponseEntity<?> createPaymentOrder(@RequestBody Map<String, Object> requestBody,
 			HttpServletRequest request) {
 		try {
 			// Fetch authenticated user
@@ -63,6 +66,11 @@ public class PaymentController {
 			String razorpayOrderId = paymentService.createOrder(user.getUserId(), totalAmount, cartItems);
 
 			return ResponseEntity.ok(razorpayOrderId);
+		} catch (InsufficientStockException e) {
+			return ResponseEntity.status(HttpStatus.CONFLICT)
+					.body(Map.of("message", "Insufficient stock", "items", e.getShortages()));
+		} catch (PaymentGatewayUnavailableException e) {
+			return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
 		} catch (RazorpayException e) {
 			e.printStackTrace();
 			return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -81,7 +89,7 @@ public class PaymentController {
 	 * @return ResponseEntity with success or failure message
 	 */
 	@PostMapping("/verify")
-	public ResponseEntity<String> verifyPayment(@RequestBody Map<String, Object> requestBody,
+	public ResponseEntity<?> verifyPayment(@RequestBody Map<String, Object> requestBody,
 			HttpServletRequest request) {
 		try {
 			// Fetch authenticated user
@@ -96,11 +104,14 @@ public class PaymentController {
 			String razorpaySignature = (String) requestBody.get("razorpaySignature");
 
 			// Call the payment service to verify the payment
-			boolean isVerified = paymentService.verifyPayment(razorpayOrderId, razorpayPaymentId, razorpaySignature,
-					userId);
+			CheckoutResult result = paymentService.verifyPayment(razorpayOrderId, razorpayPaymentId,
+					razorpaySignature, userId);
 
-			if (isVerified) {
+			if (result.verified()) {
 				return ResponseEntity.ok("Payment verified successfully");
+			} else if (!result.shortages().isEmpty()) {
+				return ResponseEntity.status(HttpStatus.CONFLICT)
+						.body(Map.of("message", "Insufficient stock", "items", result.shortages()));
 			} else {
 				return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Payment verification failed");
 			}
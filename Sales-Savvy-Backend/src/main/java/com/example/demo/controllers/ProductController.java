@@ -1,28 +1,63 @@
 package com.example.demo.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.example.demo.dtos.KeysetPageInfo;
+import com.example.demo.dtos.OffsetPageInfo;
+import com.example.demo.dtos.PageInfo;
+import com.example.demo.dtos.ProductListView;
+import com.example.demo.dtos.ProductView;
+import com.example.demo.dtos.UserSummary;
 import com.example.demo.entities.Product;
 import com.example.demo.entities.User;
+import com.example.demo.services.CatalogExportService;
+import com.example.demo.services.ExportFormat;
 import com.example.demo.services.ProductService;
 
 import jakarta.servlet.http.HttpServletRequest;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 @RestController
 @CrossOrigin(origins = "http://localhost:5173", allowCredentials = "true")
 @RequestMapping("/api/products")
 public class ProductController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ProductService productService;
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Lists products, optionally filtered by category. Without paging
+     * parameters the whole (filtered) catalog is returned. With {@code page}
+     * an offset page is returned, with {@code after} the keyset page following
+     * that product ID; {@code includeTotal} adds a count of all matches to
+     * offset pages.
+     */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getProducts(
+    public ResponseEntity<?> getProducts(
             @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) Integer after,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             HttpServletRequest request) {
         try {
             // Retrieve authenticated user from the request attribute set by the filter
@@ -31,32 +66,146 @@ public class ProductController {
                 return ResponseEntity.status(401).body(Map.of("error", "Unauthorized access"));
             }
             // Fetch products based on the category filter
-            List<Product> products = productService.getProductsByCategory(category);
-            // Build the response
-            Map<String, Object> response = new HashMap<>();
-            // Add user info
-            Map<String, String> userInfo = new HashMap<>();
-            userInfo.put("name", authenticatedUser.getUsername());
-            userInfo.put("role", authenticatedUser.getRole().name());
-            response.put("user", userInfo);
-            // Add product details
-            List<Map<String, Object>> productList = new ArrayList<>();
-            for (Product product : products) {
-                Map<String, Object> productDetails = new HashMap<>();
-                productDetails.put("product_id", product.getProductId());
-                productDetails.put("name", product.getName());
-                productDetails.put("description", product.getDescription());
-                productDetails.put("price", product.getPrice());
-                productDetails.put("stock", product.getStock());
-                // Fetch product images
-                List<String> images = productService.getProductImages(product.getProductId());
-                productDetails.put("images", images);
-                productList.add(productDetails);
+            List<Product> products;
+            PageInfo pageInfo = null;
+            if (page == null && after == null && size == null) {
+                products = productService.getProductsByCategory(category);
+            } else {
+                int pageSize = size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+                Slice<Product> slice = after != null
+                        ? productService.getProductsByCategoryAfter(category, after, pageSize)
+                        : productService.getProductsByCategory(category, page != null ? Math.max(page, 0) : 0,
+                                pageSize, includeTotal);
+                products = slice.getContent();
+                pageInfo = pageInfo(slice, after != null);
+            }
+            return ResponseEntity.ok(new ProductListView(userSummary(authenticatedUser), productViews(products),
+                    pageInfo));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Streams the whole (filtered) catalog in the same JSON shape as the
+     * unpaged listing, in product ID order. Products are read through the
+     * export cursor a chunk at a time and written as they arrive, so the
+     * catalog is never held in memory.
+     */
+    @GetMapping(params = "stream=true")
+    public ResponseEntity<?> streamProducts(
+            @RequestParam(required = false) String category,
+            HttpServletRequest request) {
+        try {
+            User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+            if (authenticatedUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized access"));
+            }
+            // Resolve up front so an unknown category still produces a 400 before the body starts
+            Integer categoryId = productService.resolveCategoryId(category);
+            UserSummary user = userSummary(authenticatedUser);
+
+            StreamingResponseBody body = out -> {
+                try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                    StreamingJsonWriters.startProductList(generator, user);
+                    catalogExportService.forEachChunk(categoryId, (chunk, imagesByProduct) -> {
+                        for (Product product : chunk) {
+                            StreamingJsonWriters.writeProduct(generator, product,
+                                    imagesByProduct.getOrDefault(product.getProductId(), List.of()));
+                        }
+                        generator.flush();
+                    });
+                    StreamingJsonWriters.endProductList(generator);
+                }
+            };
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Searches product names, categories and descriptions. Matches on whole
+     * words rank above prefix and misspelled matches, and name matches above
+     * category and description matches.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest request) {
+        try {
+            User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+            if (authenticatedUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized access"));
+            }
+            int maxResults = limit != null ? Math.min(Math.max(limit, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+            List<Product> products = productService.searchProducts(q, maxResults);
+            return ResponseEntity.ok(new ProductListView(userSummary(authenticatedUser), productViews(products), null));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Exports the whole (filtered) catalog as {@code ndjson} (one product per
+     * line) or {@code csv}. Rows are written as they are read from the
+     * database, so the catalog is never held in memory.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String category,
+            HttpServletRequest request) {
+        try {
+            User authenticatedUser = (User) request.getAttribute("authenticatedUser");
+            if (authenticatedUser == null) {
+                return ResponseEntity.status(401).body(Map.of("error", "Unauthorized access"));
             }
-            response.put("products", productList);
-            return ResponseEntity.ok(response);
+            ExportFormat exportFormat = ExportFormat.from(format);
+            Integer categoryId = productService.resolveCategoryId(category);
+
+            StreamingResponseBody body = out -> catalogExportService.export(categoryId, exportFormat, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"products." + exportFormat.extension() + "\"")
+                    .body(body);
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
+
+    private List<ProductView> productViews(List<Product> products) {
+        // Fetch images for all products at once
+        Map<Integer, List<String>> imagesByProduct = productService.getProductImages(
+                products.stream().map(Product::getProductId).toList());
+        List<ProductView> productList = new ArrayList<>(products.size());
+        for (Product product : products) {
+            productList.add(new ProductView(product.getProductId(), product.getName(), product.getDescription(),
+                    product.getPrice(), product.getStock(),
+                    imagesByProduct.getOrDefault(product.getProductId(), List.of())));
+        }
+        return productList;
+    }
+
+    private static UserSummary userSummary(User user) {
+        return new UserSummary(user.getUsername(), user.getRole().name());
+    }
+
+    private PageInfo pageInfo(Slice<Product> slice, boolean keyset) {
+        if (keyset) {
+            // Cursor for the next request's "after" parameter
+            List<Product> content = slice.getContent();
+            Integer nextCursor = slice.hasNext() ? content.get(content.size() - 1).getProductId() : null;
+            return new KeysetPageInfo(slice.getSize(), slice.hasNext(), nextCursor);
+        }
+        Long totalElements = null;
+        Integer totalPages = null;
+        if (slice instanceof Page<Product> fullPage) {
+            totalElements = fullPage.getTotalElements();
+            totalPages = fullPage.getTotalPages();
+        }
+        return new OffsetPageInfo(slice.getSize(), slice.hasNext(), slice.getNumber(), totalElements, totalPages);
+    }
 }
@@ -0,0 +1,103 @@
+package com.example.demo.controllers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.example.demo.dtos.OrderHistoryLine;
+import com.example.demo.dtos.UserSummary;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Role;
+
+import tools.jackson.core.JsonGenerator;
+
+/**
+ * Writes the listing responses field by field to a {@link JsonGenerator},
+ * so rows go to the output stream as they are read instead of being
+ * collected into DTO lists first. The JSON matches the record DTOs.
+ */
+final class StreamingJsonWriters {
+
+    private StreamingJsonWriters() {
+    }
+
+    /**
+     * Opens a {@code ProductListView} without a page section; products
+     * follow through {@link #writeProduct} and {@link #endProductList}
+     * closes it.
+     */
+    static void startProductList(JsonGenerator generator, UserSummary user) {
+        generator.writeStartObject();
+        generator.writeObjectPropertyStart("user");
+        generator.writeStringProperty("name", user.name());
+        generator.writeStringProperty("role", user.role());
+        generator.writeEndObject();
+        generator.writeArrayPropertyStart("products");
+    }
+
+    static void endProductList(JsonGenerator generator) {
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    static void writeProduct(JsonGenerator generator, Product product, List<String> images) {
+        generator.writeStartObject();
+        writeNumberProperty(generator, "product_id", product.getProductId());
+        generator.writeStringProperty("name", product.getName());
+        generator.writeStringProperty("description", product.getDescription());
+        writeNumberProperty(generator, "price", product.getPrice());
+        writeNumberProperty(generator, "stock", product.getStock());
+        generator.writeArrayPropertyStart("images");
+        for (String image : images) {
+            generator.writeString(image);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    /**
+     * Opens an {@code OrderHistoryView}; lines follow through
+     * {@link #writeOrderHistoryLine} and {@link #endOrderHistory} closes it.
+     */
+    static void startOrderHistory(JsonGenerator generator, String username, Role role) {
+        generator.writeStartObject();
+        generator.writeStringProperty("username", username);
+        generator.writeStringProperty("role", role != null ? role.name() : null);
+        generator.writeArrayPropertyStart("products");
+    }
+
+    static void writeOrderHistoryLine(JsonGenerator generator, OrderHistoryLine line) {
+        generator.writeStartObject();
+        generator.writeStringProperty("order_id", line.orderId());
+        generator.writeNumberProperty("quantity", line.quantity());
+        writeNumberProperty(generator, "total_price", line.totalPrice());
+        generator.writeStringProperty("image_url", line.imageUrl());
+        writeNumberProperty(generator, "product_id", line.productId());
+        generator.writeStringProperty("name", line.name());
+        generator.writeStringProperty("description", line.description());
+        writeNumberProperty(generator, "price_per_unit", line.pricePerUnit());
+        generator.writeEndObject();
+    }
+
+    static void endOrderHistory(JsonGenerator generator) {
+        generator.writeEndArray();
+        // The stream always holds every line
+        generator.writeBooleanProperty("has_next", false);
+        generator.writeEndObject();
+    }
+
+    private static void writeNumberProperty(JsonGenerator generator, String name, Integer value) {
+        if (value == null) {
+            generator.writeNullProperty(name);
+        } else {
+            generator.writeNumberProperty(name, value.intValue());
+        }
+    }
+
+    private static void writeNumberProperty(JsonGenerator generator, String name, BigDecimal value) {
+        if (value == null) {
+            generator.writeNullProperty(name);
+        } else {
+            generator.writeNumberProperty(name, value);
+        }
+    }
+}
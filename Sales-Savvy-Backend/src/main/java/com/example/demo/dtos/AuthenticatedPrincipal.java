@@ -0,0 +1,26 @@
+package com.example.demo.dtos;
+
+import com.example.demo.entities.Role;
+import com.example.demo.entities.User;
+
+/**
+ * The user fields request handlers need once a request is authenticated.
+ */
+public record AuthenticatedPrincipal(int userId, String username, Role role) {
+
+	public static AuthenticatedPrincipal of(User user) {
+		return new AuthenticatedPrincipal(user.getUserId(), user.getUsername(), user.getRole());
+	}
+
+	/**
+	 * Detached User carrying only id, username and role, for controllers that
+	 * read the "authenticatedUser" request attribute. It must not be saved.
+	 */
+	public User toUser() {
+		User user = new User();
+		user.setUserId(userId);
+		user.setUsername(username);
+		user.setRole(role);
+		return user;
+	}
+}
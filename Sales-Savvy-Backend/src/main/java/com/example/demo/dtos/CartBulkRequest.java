@@ -0,0 +1,6 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+public record CartBulkRequest(List<CartOperation> operations) {
+}
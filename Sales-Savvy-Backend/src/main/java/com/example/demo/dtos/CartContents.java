@@ -0,0 +1,10 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CartContents(
+		@JsonProperty("products") List<CartLineView> products,
+		@JsonProperty("overall_total_price") int overallTotalPrice) {
+}
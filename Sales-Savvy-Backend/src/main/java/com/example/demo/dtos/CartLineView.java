@@ -0,0 +1,27 @@
+package com.example.demo.dtos;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One cart line with the product fields and first image the cart page shows.
+ */
+public record CartLineView(
+		@JsonProperty("product_id") Integer productId,
+		@JsonProperty("image_url") String imageUrl,
+		@JsonProperty("name") String name,
+		@JsonProperty("description") String description,
+		@JsonProperty("price_per_unit") BigDecimal pricePerUnit,
+		@JsonProperty("quantity") int quantity,
+		@JsonProperty("total_price") double totalPrice) {
+
+	public static final String DEFAULT_IMAGE_URL = "default-image-url";
+
+	// Used by the cart projection query
+	public CartLineView(Integer productId, String name, String description, BigDecimal pricePerUnit, int quantity,
+			String imageUrl) {
+		this(productId, imageUrl != null ? imageUrl : DEFAULT_IMAGE_URL, name, description, pricePerUnit, quantity,
+				quantity * pricePerUnit.doubleValue());
+	}
+}
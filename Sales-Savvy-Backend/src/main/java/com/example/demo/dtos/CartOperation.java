@@ -0,0 +1,39 @@
+package com.example.demo.dtos;
+
+/**
+ * One change in a bulk cart request: {@code add} adds {@code quantity}
+ * (default 1), {@code set} sets it (0 removes the line) and {@code remove}
+ * removes the product.
+ */
+public record CartOperation(String op, Integer productId, Integer quantity) {
+
+    public enum Type { ADD, SET, REMOVE }
+
+    public Type type() {
+        if (op == null) {
+            throw new IllegalArgumentException("Missing op");
+        }
+        return switch (op.toLowerCase()) {
+            case "add" -> Type.ADD;
+            case "set" -> Type.SET;
+            case "remove" -> Type.REMOVE;
+            default -> throw new IllegalArgumentException("Unknown op: " + op);
+        };
+    }
+
+    /**
+     * Checks the fields every operation needs, throwing
+     * {@link IllegalArgumentException} for a missing or unknown op or a
+     * missing product id.
+     */
+    public void validate() {
+        type();
+        if (productId == null) {
+            throw new IllegalArgumentException("Missing productId");
+        }
+    }
+
+    public int quantityOrDefault() {
+        return quantity != null ? quantity : 1;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.dtos;
+
+/**
+ * Quantity of one product in a user's cart.
+ */
+public record CartQuantity(Integer productId, int quantity) {
+}
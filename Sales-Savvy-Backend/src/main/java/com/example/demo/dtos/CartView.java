@@ -0,0 +1,12 @@
+package com.example.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response body of GET /api/cart/items.
+ */
+public record CartView(
+		@JsonProperty("username") String username,
+		@JsonProperty("role") String role,
+		@JsonProperty("cart") CartContents cart) {
+}
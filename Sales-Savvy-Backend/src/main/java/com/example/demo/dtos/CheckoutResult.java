@@ -0,0 +1,23 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+/**
+ * Outcome of verifying a payment and committing the order. When
+ * {@code verified} is false and {@code shortages} is not empty, the payment
+ * was valid but the listed lines were out of stock and nothing was committed.
+ */
+public record CheckoutResult(boolean verified, List<StockShortage> shortages) {
+
+    public static CheckoutResult success() {
+        return new CheckoutResult(true, List.of());
+    }
+
+    public static CheckoutResult failure() {
+        return new CheckoutResult(false, List.of());
+    }
+
+    public static CheckoutResult outOfStock(List<StockShortage> shortages) {
+        return new CheckoutResult(false, List.copyOf(shortages));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Paging details of a keyset page. {@code next_cursor} is the
+ * {@code after} value for the next page and is written as null on the
+ * last page.
+ */
+public record KeysetPageInfo(
+        @JsonProperty("size") int size,
+        @JsonProperty("has_next") boolean hasNext,
+        @JsonProperty("next_cursor") Integer nextCursor) implements PageInfo {
+}
@@ -0,0 +1,22 @@
+package com.example.demo.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One item of a successful order together with the order's own columns, as
+ * read by the ledger export. The item fields are null for an order without
+ * items.
+ */
+public record LedgerLine(
+        String orderId,
+        int userId,
+        BigDecimal totalAmount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Integer itemId,
+        Integer productId,
+        Integer quantity,
+        BigDecimal pricePerUnit,
+        BigDecimal totalPrice) {
+}
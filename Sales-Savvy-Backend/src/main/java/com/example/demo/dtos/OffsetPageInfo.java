@@ -0,0 +1,16 @@
+package com.example.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Paging details of an offset page. The totals are only present when they
+ * were counted.
+ */
+public record OffsetPageInfo(
+        @JsonProperty("size") int size,
+        @JsonProperty("has_next") boolean hasNext,
+        @JsonProperty("number") int number,
+        @JsonInclude(JsonInclude.Include.NON_NULL) @JsonProperty("total_elements") Long totalElements,
+        @JsonInclude(JsonInclude.Include.NON_NULL) @JsonProperty("total_pages") Integer totalPages) implements PageInfo {
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dtos;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One purchased line of a successful order, with the product's current name,
+ * description and first image.
+ */
+public record OrderHistoryLine(
+        @JsonProperty("order_id") String orderId,
+        @JsonProperty("quantity") int quantity,
+        @JsonProperty("total_price") BigDecimal totalPrice,
+        @JsonProperty("image_url") String imageUrl,
+        @JsonProperty("product_id") Integer productId,
+        @JsonProperty("name") String name,
+        @JsonProperty("description") String description,
+        @JsonProperty("price_per_unit") BigDecimal pricePerUnit) {
+}
@@ -0,0 +1,17 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+import com.example.demo.entities.Role;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response body of GET /api/orders. {@code hasNext} tells paging clients
+ * whether older orders exist.
+ */
+public record OrderHistoryView(
+        @JsonProperty("username") String username,
+        @JsonProperty("role") Role role,
+        @JsonProperty("products") List<OrderHistoryLine> products,
+        @JsonProperty("has_next") boolean hasNext) {
+}
@@ -0,0 +1,13 @@
+package com.example.demo.dtos;
+
+/**
+ * Paging details of a product listing: {@link KeysetPageInfo} for pages
+ * requested with {@code after}, {@link OffsetPageInfo} for pages requested
+ * by number.
+ */
+public sealed interface PageInfo permits KeysetPageInfo, OffsetPageInfo {
+
+    int size();
+
+    boolean hasNext();
+}
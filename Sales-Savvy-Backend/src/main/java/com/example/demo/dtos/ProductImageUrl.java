@@ -0,0 +1,7 @@
+package com.example.demo.dtos;
+
+/**
+ * One image URL together with the product it belongs to.
+ */
+public record ProductImageUrl(Integer productId, String imageUrl) {
+}
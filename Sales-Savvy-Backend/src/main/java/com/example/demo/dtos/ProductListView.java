@@ -0,0 +1,16 @@
+package com.example.demo.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Response body of GET /api/products. {@code page} is only present when
+ * paging parameters were given.
+ */
+public record ProductListView(
+        @JsonProperty("user") UserSummary user,
+        @JsonProperty("products") List<ProductView> products,
+        @JsonInclude(JsonInclude.Include.NON_NULL) @JsonProperty("page") PageInfo page) {
+}
@@ -0,0 +1,18 @@
+package com.example.demo.dtos;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One product of the catalog listing with all of its image URLs.
+ */
+public record ProductView(
+        @JsonProperty("product_id") Integer productId,
+        @JsonProperty("name") String name,
+        @JsonProperty("description") String description,
+        @JsonProperty("price") BigDecimal price,
+        @JsonProperty("stock") Integer stock,
+        @JsonProperty("images") List<String> images) {
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dtos;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Successful orders of one reporting period: a day ({@code 2024-05-31}),
+ * a month ({@code 2024-05}), a year ({@code 2024}) or {@code overall}.
+ */
+public record SalesSummary(
+        @JsonProperty("period") String period,
+        @JsonProperty("order_count") long orderCount,
+        @JsonProperty("items_sold") long itemsSold,
+        @JsonProperty("revenue") BigDecimal revenue) {
+
+    public static SalesSummary empty(String period) {
+        return new SalesSummary(period, 0, 0, BigDecimal.ZERO);
+    }
+
+    public SalesSummary plus(long orders, long items, BigDecimal amount) {
+        return new SalesSummary(period, orderCount + orders, itemsSold + items, revenue.add(amount));
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A checkout line that could not be fulfilled because stock ran out.
+ */
+public record StockShortage(
+        @JsonProperty("product_id") int productId,
+        @JsonProperty("requested") int requested,
+        @JsonProperty("available") int available) {
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dtos;
+
+import java.time.Instant;
+
+import com.example.demo.entities.Role;
+
+/**
+ * Claims of a JWT whose signature and jwt_tokens entry have been verified.
+ */
+public record TokenClaims(String username, Role role, Instant expiresAt) {
+}
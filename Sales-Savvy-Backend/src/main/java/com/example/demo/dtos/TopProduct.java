@@ -0,0 +1,16 @@
+package com.example.demo.dtos;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One product's sales over a report window. The name is null when the
+ * product has since been deleted.
+ */
+public record TopProduct(
+        @JsonProperty("product_id") int productId,
+        @JsonProperty("name") String name,
+        @JsonProperty("units_sold") long unitsSold,
+        @JsonProperty("revenue") BigDecimal revenue) {
+}
@@ -0,0 +1,11 @@
+package com.example.demo.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Name and role of the caller, echoed back by the listing endpoints.
+ */
+public record UserSummary(
+        @JsonProperty("name") String name,
+        @JsonProperty("role") String role) {
+}
@@ -0,0 +1,58 @@
+package com.example.demo.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Successful orders of one calendar day, by order creation date. Kept up
+ * to date when a payment is verified, so revenue reports never scan the
+ * orders table.
+ */
+@Entity
+@Table(name = "sales_daily")
+public class DailySales {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "items_sold", nullable = false)
+    private long itemsSold;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    public DailySales() {
+    }
+
+    public DailySales(LocalDate salesDate, long orderCount, long itemsSold, BigDecimal revenue) {
+        this.salesDate = salesDate;
+        this.orderCount = orderCount;
+        this.itemsSold = itemsSold;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getItemsSold() {
+        return itemsSold;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -7,13 +7,21 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "jwt_tokens")
+// Requests look tokens up by hash; the reaper scans by expiry
+@Table(name = "jwt_tokens", indexes = {
+        @Index(name = "idx_jwt_tokens_token_hash", columnList = "token_hash"),
+        @Index(name = "idx_jwt_tokens_expires_at", columnList = "expires_at")
+})
 public class JWTToken {
+    // Signed HS512 tokens with a subject and role are well under this
+    public static final int MAX_TOKEN_LENGTH = 1024;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY) // Specifies that the tokenId will be auto-generated.
     private Integer tokenId; // Stores the unique identifier for each token.
@@ -22,10 +30,13 @@ public class JWTToken {
     @JoinColumn(name = "user_id", nullable = false) // Links the token to a specific user in the Users table.
     private User user; // Represents the user associated with the token.
 
-    @Column(nullable = false) // Ensures that the token cannot be null.
+    @Column(nullable = false, length = MAX_TOKEN_LENGTH) // Ensures that the token cannot be null.
     private String token; // Stores the JWT token string.
 
-    @Column(nullable = false) // Ensures that the expiration time cannot be null.
+    @Column(name = "token_hash", length = 64) // Hex SHA-256 of the token; null only for rows not yet backfilled.
+    private String tokenHash; // Indexed lookup key for the token.
+
+    @Column(name = "expires_at", nullable = false) // Ensures that the expiration time cannot be null.
     private LocalDateTime expiresAt; // Stores the expiration time of the token.
 
 	public JWTToken(Integer tokenId, User user, String token, LocalDateTime expiresAt) {
@@ -71,6 +82,14 @@ public class JWTToken {
 		this.token = token;
 	}
 
+	public String getTokenHash() {
+		return tokenHash;
+	}
+
+	public void setTokenHash(String tokenHash) {
+		this.tokenHash = tokenHash;
+	}
+
 	public LocalDateTime getExpiresAt() {
 		return expiresAt;
 	}
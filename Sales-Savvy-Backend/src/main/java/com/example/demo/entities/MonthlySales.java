@@ -0,0 +1,57 @@
+package com.example.demo.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Successful orders of one calendar month, keyed by the first day of the
+ * month. Maintained together with {@link DailySales}.
+ */
+@Entity
+@Table(name = "sales_monthly")
+public class MonthlySales {
+
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "items_sold", nullable = false)
+    private long itemsSold;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    public MonthlySales() {
+    }
+
+    public MonthlySales(LocalDate monthStart, long orderCount, long itemsSold, BigDecimal revenue) {
+        this.monthStart = monthStart;
+        this.orderCount = orderCount;
+        this.itemsSold = itemsSold;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public long getItemsSold() {
+        return itemsSold;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+}
@@ -8,12 +8,16 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "order_items")
+// Product sales are rebuilt by grouping order lines per product
+@Table(name = "order_items", indexes = {
+        @Index(name = "idx_order_items_product_id", columnList = "product_id")
+})
 public class OrderItem {
 
     @Id
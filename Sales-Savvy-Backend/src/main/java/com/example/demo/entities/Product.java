@@ -2,10 +2,18 @@ package com.example.demo.entities;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.example.demo.cache.ProductSearchIndexListener;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ProductSearchIndexListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "products")
 public class Product {
     @Id
@@ -24,6 +32,10 @@ public class Product {
     @Column(nullable = false)
     private Integer stock;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
@@ -103,6 +115,14 @@ public class Product {
 		this.stock = stock;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public Category getCategory() {
 		return category;
 	}
@@ -0,0 +1,93 @@
+package com.example.demo.entities;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+/**
+ * Units and revenue of one product on one calendar day, by order creation
+ * date. Kept up to date when a payment is verified, so best-seller reports
+ * read these rows instead of grouping order_items.
+ */
+@Entity
+@Table(name = "product_sales_daily")
+@IdClass(ProductDailySales.Key.class)
+public class ProductDailySales {
+
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "product_id")
+    private int productId;
+
+    @Column(name = "units_sold", nullable = false)
+    private long unitsSold;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    public ProductDailySales() {
+    }
+
+    public ProductDailySales(LocalDate salesDate, int productId, long unitsSold, BigDecimal revenue) {
+        this.salesDate = salesDate;
+        this.productId = productId;
+        this.unitsSold = unitsSold;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public long getUnitsSold() {
+        return unitsSold;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public static class Key implements Serializable {
+
+        private LocalDate salesDate;
+        private int productId;
+
+        public Key() {
+        }
+
+        public Key(LocalDate salesDate, int productId) {
+            this.salesDate = salesDate;
+            this.productId = productId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return productId == other.productId && Objects.equals(salesDate, other.salesDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(salesDate, productId);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.demo.entities;
+
+public enum ReservationStatus {
+	RESERVED,
+	COMMITTED,
+	RELEASED
+}
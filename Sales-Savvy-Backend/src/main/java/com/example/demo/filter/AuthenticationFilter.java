@@ -1,8 +1,9 @@
 package com.example.demo.filter;
 
+import com.example.demo.cache.PrincipalCache;
+import com.example.demo.dtos.AuthenticatedPrincipal;
+import com.example.demo.dtos.TokenClaims;
 import com.example.demo.entities.Role;
-import com.example.demo.entities.User;
-import com.example.demo.repositories.UserRepository;
 import com.example.demo.services.AuthService;
 
 import jakarta.servlet.Filter;
@@ -40,12 +41,12 @@ public class AuthenticationFilter implements Filter {
     };
 
     private final AuthService authService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     public AuthenticationFilter(AuthService authService,
-                                UserRepository userRepository) {
+                                PrincipalCache principalCache) {
         this.authService = authService;
-        this.userRepository = userRepository;
+        this.principalCache = principalCache;
         System.out.println("Filter Started.");
     }
 
@@ -97,8 +98,10 @@ public class AuthenticationFilter implements Filter {
 
         // ✅ 3. READ TOKEN FROM COOKIE
         String token = getAuthTokenFromCookies(request);
+        Optional<TokenClaims> claims =
+                token == null ? Optional.empty() : authService.verifyToken(token);
 
-        if (token == null || !authService.validateToken(token)) {
+        if (claims.isEmpty()) {
             sendErrorResponse(
                     response,
                     HttpServletResponse.SC_UNAUTHORIZED,
@@ -107,24 +110,10 @@ public class AuthenticationFilter implements Filter {
             return;
         }
 
-        // ✅ 4. EXTRACT USER
-        String username = authService.extractUsername(token);
-        Optional<User> userOptional =
-                userRepository.findByUsername(username);
+        // ✅ 4. ROLE CHECK (the role claim is signed, so no DB lookup is needed)
+        String username = claims.get().username();
+        Role role = claims.get().role();
 
-        if (userOptional.isEmpty()) {
-            sendErrorResponse(
-                    response,
-                    HttpServletResponse.SC_UNAUTHORIZED,
-                    "Unauthorized: User not found"
-            );
-            return;
-        }
-
-        User authenticatedUser = userOptional.get();
-        Role role = authenticatedUser.getRole();
-
-        // ✅ 5. ROLE CHECK
         if (requestURI.startsWith("/admin/")
                 && role != Role.ADMIN) {
             sendErrorResponse(
@@ -145,8 +134,21 @@ public class AuthenticationFilter implements Filter {
             return;
         }
 
+        // ✅ 5. RESOLVE USER (cached, the DB is only hit on a miss)
+        Optional<AuthenticatedPrincipal> principal =
+                principalCache.get(username);
+
+        if (principal.isEmpty()) {
+            sendErrorResponse(
+                    response,
+                    HttpServletResponse.SC_UNAUTHORIZED,
+                    "Unauthorized: User not found"
+            );
+            return;
+        }
+
         // ✅ 6. ATTACH USER & CONTINUE
-        request.setAttribute("authenticatedUser", authenticatedUser);
+        request.setAttribute("authenticatedUser", principal.get().toUser());
         chain.doFilter(request, response);
     }
 
@@ -8,12 +8,14 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dtos.CartLineView;
+import com.example.demo.dtos.CartQuantity;
 import com.example.demo.entities.CartItem;
 
 import jakarta.transaction.Transactional;
 
 @Repository
-public interface CartRepository extends JpaRepository<CartItem, Integer> {
+public interface CartRepository extends JpaRepository<CartItem, Integer>, CartRepositoryCustom {
 	@Query("SELECT c FROM CartItem c WHERE c.user.userId = :userId AND c.product.productId = :productId")
 	Optional<CartItem> findByUserAndProduct(int userId, int productId);
 
@@ -21,9 +23,21 @@ public interface CartRepository extends JpaRepository<CartItem, Integer> {
 	@Query("SELECT COALESCE(SUM(c.quantity), 0) FROM CartItem c WHERE c.user.userId = :userId")
 	int countTotalItems(int userId);
 
-	@Query("SELECT c FROM CartItem c JOIN FETCH c.product p LEFT JOIN FETCH ProductImage pi ON p.productId = pi.product.productId WHERE c.user.userId = :userId")
+	@Query("SELECT new com.example.demo.dtos.CartQuantity(c.product.productId, c.quantity) "
+			+ "FROM CartItem c WHERE c.user.userId = :userId ORDER BY c.id")
+	List<CartQuantity> findCartQuantities(int userId);
+
+	@Query("SELECT c FROM CartItem c JOIN FETCH c.product p WHERE c.user.userId = :userId")
 	List<CartItem> findCartItemsWithProductDetails(int userId);
 
+	// Cart lines with product fields and the product's first image in a single query
+	@Query("SELECT new com.example.demo.dtos.CartLineView(p.productId, p.name, p.description, p.price, c.quantity, pi.imageUrl) "
+			+ "FROM CartItem c JOIN c.product p "
+			+ "LEFT JOIN ProductImage pi ON pi.product = p "
+			+ "AND pi.imageId = (SELECT MIN(pi2.imageId) FROM ProductImage pi2 WHERE pi2.product = p) "
+			+ "WHERE c.user.userId = :userId ORDER BY c.id")
+	List<CartLineView> findCartLines(int userId);
+
 	// Update quantity for a specific cart item
 	@Query("UPDATE CartItem c SET c.quantity = :quantity WHERE c.id = :cartItemId")
 	void updateCartItemQuantity(int cartItemId, int quantity);
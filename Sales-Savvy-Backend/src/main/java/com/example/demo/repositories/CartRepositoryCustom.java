@@ -0,0 +1,20 @@
+package com.example.demo.repositories;
+
+import java.util.Map;
+
+public interface CartRepositoryCustom {
+
+    /**
+     * Adds the given quantities to the user's cart, one atomic upsert per
+     * product sent as a single JDBC batch. Missing rows are inserted. Safe
+     * to call concurrently for the same user and product.
+     */
+    void addQuantities(int userId, Map<Integer, Integer> quantitiesByProduct);
+
+    /**
+     * Brings the user's cart rows for the given products to the given
+     * quantities: rows are upserted, and rows whose quantity is zero are
+     * deleted. Each kind of change is sent as one JDBC batch.
+     */
+    void writeCartLines(int userId, Map<Integer, Integer> quantitiesByProduct);
+}
@@ -0,0 +1,63 @@
+package com.example.demo.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+class CartRepositoryImpl implements CartRepositoryCustom {
+
+    // Both rely on the unique key on (user_id, product_id)
+    private static final String ADD_SQL = "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)";
+    private static final String UPSERT_SQL = "INSERT INTO cart_items (user_id, product_id, quantity) VALUES (?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    CartRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addQuantities(int userId, Map<Integer, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, Integer>> lines = new ArrayList<>(quantitiesByProduct.entrySet());
+        jdbcTemplate.batchUpdate(ADD_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, userId);
+            ps.setInt(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        });
+    }
+
+    @Override
+    public void writeCartLines(int userId, Map<Integer, Integer> quantitiesByProduct) {
+        List<Map.Entry<Integer, Integer>> kept = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+        quantitiesByProduct.forEach((productId, quantity) -> {
+            if (quantity > 0) {
+                kept.add(Map.entry(productId, quantity));
+            } else {
+                removed.add(productId);
+            }
+        });
+
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, removed, removed.size(), (ps, productId) -> {
+                ps.setInt(1, userId);
+                ps.setInt(2, productId);
+            });
+        }
+        if (!kept.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, kept, kept.size(), (ps, line) -> {
+                ps.setInt(1, userId);
+                ps.setInt(2, line.getKey());
+                ps.setInt(3, line.getValue());
+            });
+        }
+    }
+}
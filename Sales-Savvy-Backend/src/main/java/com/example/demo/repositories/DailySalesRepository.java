@@ -0,0 +1,15 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.DailySales;
+
+@Repository
+public interface DailySalesRepository extends JpaRepository<DailySales, LocalDate>, DailySalesRepositoryCustom {
+
+    List<DailySales> findBySalesDateBetweenOrderBySalesDate(LocalDate from, LocalDate to);
+}
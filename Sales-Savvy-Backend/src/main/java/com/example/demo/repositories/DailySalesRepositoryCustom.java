@@ -0,0 +1,20 @@
+package com.example.demo.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailySalesRepositoryCustom {
+
+    /**
+     * Adds one successful order to the rows of its day and month in
+     * sales_daily and sales_monthly, creating them if needed.
+     */
+    void addSale(LocalDate day, long itemsSold, BigDecimal revenue);
+
+    /**
+     * Replaces both rollup tables with totals recomputed from the orders
+     * table. Orders verified while this runs may be counted twice or not at
+     * all, so it should run while checkouts are quiet.
+     */
+    void rebuildFromOrders();
+}
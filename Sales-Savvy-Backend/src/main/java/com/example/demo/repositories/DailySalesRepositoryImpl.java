@@ -0,0 +1,70 @@
+package com.example.demo.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entities.MonthlySales;
+
+class DailySalesRepositoryImpl implements DailySalesRepositoryCustom {
+
+    private static final String ADD_DAILY_SQL = "INSERT INTO sales_daily "
+            + "(sales_date, order_count, items_sold, revenue) VALUES (?, 1, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + 1, "
+            + "items_sold = items_sold + VALUES(items_sold), revenue = revenue + VALUES(revenue)";
+    private static final String ADD_MONTHLY_SQL = "INSERT INTO sales_monthly "
+            + "(month_start, order_count, items_sold, revenue) VALUES (?, 1, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE order_count = order_count + 1, "
+            + "items_sold = items_sold + VALUES(items_sold), revenue = revenue + VALUES(revenue)";
+
+    private static final String REBUILD_DAILY_SQL = "INSERT INTO sales_daily "
+            + "(sales_date, order_count, items_sold, revenue) "
+            + "SELECT CAST(o.created_at AS DATE), COUNT(*), COALESCE(SUM(i.items_sold), 0), SUM(o.total_amount) "
+            + "FROM orders o LEFT JOIN "
+            + "(SELECT order_id, SUM(quantity) AS items_sold FROM order_items GROUP BY order_id) i "
+            + "ON i.order_id = o.order_id "
+            + "WHERE o.status = 'SUCCESS' GROUP BY CAST(o.created_at AS DATE)";
+    private static final String INSERT_MONTHLY_SQL = "INSERT INTO sales_monthly "
+            + "(month_start, order_count, items_sold, revenue) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    DailySalesRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addSale(LocalDate day, long itemsSold, BigDecimal revenue) {
+        jdbcTemplate.update(ADD_DAILY_SQL, day, itemsSold, revenue);
+        jdbcTemplate.update(ADD_MONTHLY_SQL, day.withDayOfMonth(1), itemsSold, revenue);
+    }
+
+    @Override
+    public void rebuildFromOrders() {
+        jdbcTemplate.update("DELETE FROM sales_monthly");
+        jdbcTemplate.update("DELETE FROM sales_daily");
+        jdbcTemplate.update(REBUILD_DAILY_SQL);
+
+        // Months are summed from the days here; date truncation differs between databases
+        Map<LocalDate, MonthlySales> months = new TreeMap<>();
+        jdbcTemplate.query("SELECT sales_date, order_count, items_sold, revenue FROM sales_daily", rs -> {
+            LocalDate monthStart = rs.getObject(1, LocalDate.class).withDayOfMonth(1);
+            MonthlySales day = new MonthlySales(monthStart, rs.getLong(2), rs.getLong(3), rs.getBigDecimal(4));
+            months.merge(monthStart, day, (a, b) -> new MonthlySales(monthStart,
+                    a.getOrderCount() + b.getOrderCount(), a.getItemsSold() + b.getItemsSold(),
+                    a.getRevenue().add(b.getRevenue())));
+        });
+        List<MonthlySales> rows = new ArrayList<>(months.values());
+        jdbcTemplate.batchUpdate(INSERT_MONTHLY_SQL, rows, rows.size(), (ps, month) -> {
+            ps.setObject(1, month.getMonthStart());
+            ps.setLong(2, month.getOrderCount());
+            ps.setLong(3, month.getItemsSold());
+            ps.setBigDecimal(4, month.getRevenue());
+        });
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.demo.repositories;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -18,7 +21,19 @@ public interface JWTTokenRepository extends JpaRepository<JWTToken, Integer> {
     @Query("SELECT t FROM JWTToken t WHERE t.user.userId = :userId")
     JWTToken findByUserId(@Param("userId") int userId);
     
-    Optional<JWTToken> findByToken(String token);
+    // Uses idx_jwt_tokens_token_hash; the first match is enough if a token was ever saved twice
+    Optional<JWTToken> findFirstByTokenHash(String tokenHash);
+
+    List<JWTToken> findByTokenHashIsNull(Limit limit);
+
+    @Query("SELECT t.tokenId FROM JWTToken t WHERE t.expiresAt < :cutoff ORDER BY t.expiresAt")
+    List<Integer> findIdsExpiredBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    long countByExpiresAtBefore(LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM JWTToken t WHERE t.tokenId IN :ids")
+    int deleteByTokenIds(@Param("ids") List<Integer> ids);
     
  // Custom query to delete tokens by user ID
     @Modifying
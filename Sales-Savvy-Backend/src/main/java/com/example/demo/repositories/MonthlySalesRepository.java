@@ -0,0 +1,15 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.MonthlySales;
+
+@Repository
+public interface MonthlySalesRepository extends JpaRepository<MonthlySales, LocalDate> {
+
+    List<MonthlySales> findByMonthStartBetweenOrderByMonthStart(LocalDate from, LocalDate to);
+}
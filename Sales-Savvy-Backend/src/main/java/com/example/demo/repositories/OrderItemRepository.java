@@ -1,15 +1,17 @@
 package com.example.demo.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dtos.OrderHistoryLine;
 import com.example.demo.entities.OrderItem;
 
 @Repository
-public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
+public interface OrderItemRepository extends JpaRepository<OrderItem, Integer>, OrderItemRepositoryCustom {
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.orderId = :orderId")
     List<OrderItem> findByOrderId(String orderId);
     
@@ -17,4 +19,26 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, Integer> {
     @Query("SELECT oi FROM OrderItem oi WHERE oi.order.userId = :userId AND oi.order.status = 'SUCCESS'")
     List<OrderItem> findSuccessfulOrderItemsByUserId(int userId);
 
+    // Successful order lines with product details and first image, newest orders first, in one query.
+    // OrderItemRepositoryImpl.ORDER_HISTORY_SQL repeats this in SQL for streaming; change both together.
+    String ORDER_HISTORY_SELECT = "SELECT new com.example.demo.dtos.OrderHistoryLine(o.orderId, oi.quantity, "
+            + "oi.totalPrice, pi.imageUrl, p.productId, p.name, p.description, oi.pricePerUnit) "
+            + "FROM OrderItem oi JOIN oi.order o JOIN Product p ON p.productId = oi.productId "
+            + "LEFT JOIN ProductImage pi ON pi.product = p "
+            + "AND pi.imageId = (SELECT MIN(pi2.imageId) FROM ProductImage pi2 WHERE pi2.product = p) "
+            + "WHERE o.status = com.example.demo.entities.OrderStatus.SUCCESS ";
+    String ORDER_HISTORY_ORDER_BY = "ORDER BY o.createdAt DESC, o.orderId, oi.id";
+
+    @Query(ORDER_HISTORY_SELECT + "AND o.userId = :userId " + ORDER_HISTORY_ORDER_BY)
+    List<OrderHistoryLine> findOrderHistory(int userId);
+
+    /**
+     * Lines of the given orders, in the same order as
+     * {@link #findOrderHistory(int)}. Used with one page of
+     * {@link OrderRepository#findSuccessfulOrderIdsByUserId}, so a page never
+     * splits an order.
+     */
+    @Query(ORDER_HISTORY_SELECT + "AND o.orderId IN :orderIds " + ORDER_HISTORY_ORDER_BY)
+    List<OrderHistoryLine> findOrderHistoryByOrderIds(Collection<String> orderIds);
+
 }
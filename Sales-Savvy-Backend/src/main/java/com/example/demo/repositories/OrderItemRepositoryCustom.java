@@ -0,0 +1,37 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.example.demo.dtos.LedgerLine;
+import com.example.demo.dtos.OrderHistoryLine;
+import com.example.demo.entities.OrderItem;
+
+public interface OrderItemRepositoryCustom {
+
+    /**
+     * Inserts the items with one JDBC batch. Hibernate cannot batch these
+     * inserts itself because order_items uses IDENTITY keys. The generated
+     * IDs are not written back to the items.
+     */
+    void batchInsert(List<OrderItem> orderItems);
+
+    /**
+     * Passes the user's successful order lines to {@code action} in the order
+     * of {@code findOrderHistory}, one row at a time as the result set is
+     * read, without collecting them into a list.
+     */
+    void forEachOrderHistoryLine(int userId, Consumer<OrderHistoryLine> action);
+
+    /**
+     * Passes every item of every successful order to {@code action}, ordered
+     * by order creation time, order ID and item ID, through one cursor query.
+     * With a checkpoint only orders after ({@code afterCreatedAt},
+     * {@code afterOrderId}) in that order are read.
+     *
+     * @param afterCreatedAt creation time of the last order already read, or null to start at the beginning
+     * @param afterOrderId   ID of the last order already read; required with {@code afterCreatedAt}
+     */
+    void forEachLedgerLine(LocalDateTime afterCreatedAt, String afterOrderId, Consumer<LedgerLine> action);
+}
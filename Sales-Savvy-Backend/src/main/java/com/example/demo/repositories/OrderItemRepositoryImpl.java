@@ -0,0 +1,91 @@
+package com.example.demo.repositories;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.example.demo.dtos.LedgerLine;
+import com.example.demo.dtos.OrderHistoryLine;
+import com.example.demo.entities.OrderItem;
+
+class OrderItemRepositoryImpl implements OrderItemRepositoryCustom {
+
+    private static final String INSERT_SQL = "INSERT INTO order_items "
+            + "(order_id, product_id, quantity, price_per_unit, total_price) VALUES (?, ?, ?, ?, ?)";
+
+    // Native twin of OrderItemRepository.ORDER_HISTORY_SELECT/ORDER_HISTORY_ORDER_BY for userId; keep the
+    // filters and ordering in step (OrderControllerStreamTests compares the two outputs)
+    private static final String ORDER_HISTORY_SQL = "SELECT o.order_id, oi.quantity, oi.total_price, pi.image_url, "
+            + "p.product_id, p.name, p.description, oi.price_per_unit "
+            + "FROM order_items oi JOIN orders o ON o.order_id = oi.order_id "
+            + "JOIN products p ON p.product_id = oi.product_id "
+            + "LEFT JOIN productimages pi ON pi.image_id = "
+            + "(SELECT MIN(pi2.image_id) FROM productimages pi2 WHERE pi2.product_id = p.product_id) "
+            + "WHERE o.user_id = ? AND o.status = 'SUCCESS' "
+            + "ORDER BY o.created_at DESC, o.order_id, oi.id";
+
+    private static final String LEDGER_SELECT = "SELECT o.order_id, o.user_id, o.total_amount, o.created_at, "
+            + "o.updated_at, oi.id, oi.product_id, oi.quantity, oi.price_per_unit, oi.total_price "
+            + "FROM orders o LEFT JOIN order_items oi ON oi.order_id = o.order_id "
+            + "WHERE o.status = 'SUCCESS' ";
+    private static final String LEDGER_ORDER_BY = "ORDER BY o.created_at, o.order_id, oi.id";
+    private static final String LEDGER_SQL = LEDGER_SELECT + LEDGER_ORDER_BY;
+    // The leading created_at >= ? lets the (status, created_at) index start the scan at the checkpoint
+    private static final String LEDGER_AFTER_SQL = LEDGER_SELECT
+            + "AND o.created_at >= ? AND (o.created_at > ? OR o.order_id > ?) " + LEDGER_ORDER_BY;
+
+    // Rows per round trip of the forEach cursors; MySQL only streams with useCursorFetch and a positive fetch size
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    OrderItemRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void batchInsert(List<OrderItem> orderItems) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, orderItems, orderItems.size(), (ps, item) -> {
+            ps.setString(1, item.getOrder().getOrderId());
+            ps.setInt(2, item.getProductId());
+            ps.setInt(3, item.getQuantity());
+            ps.setBigDecimal(4, item.getPricePerUnit());
+            ps.setBigDecimal(5, item.getTotalPrice());
+        });
+    }
+
+    @Override
+    public void forEachOrderHistoryLine(int userId, Consumer<OrderHistoryLine> action) {
+        RowCallbackHandler handler = rs -> action.accept(new OrderHistoryLine(rs.getString(1), rs.getInt(2),
+                rs.getBigDecimal(3), rs.getString(4), rs.getInt(5), rs.getString(6), rs.getString(7),
+                rs.getBigDecimal(8)));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(ORDER_HISTORY_SQL);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            ps.setInt(1, userId);
+            return ps;
+        }, handler);
+    }
+
+    @Override
+    public void forEachLedgerLine(LocalDateTime afterCreatedAt, String afterOrderId, Consumer<LedgerLine> action) {
+        RowCallbackHandler handler = rs -> action.accept(new LedgerLine(rs.getString(1), rs.getInt(2),
+                rs.getBigDecimal(3), rs.getObject(4, LocalDateTime.class), rs.getObject(5, LocalDateTime.class),
+                rs.getObject(6, Integer.class), rs.getObject(7, Integer.class), rs.getObject(8, Integer.class),
+                rs.getBigDecimal(9), rs.getBigDecimal(10)));
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(afterCreatedAt == null ? LEDGER_SQL : LEDGER_AFTER_SQL);
+            ps.setFetchSize(STREAM_FETCH_SIZE);
+            if (afterCreatedAt != null) {
+                ps.setObject(1, afterCreatedAt);
+                ps.setObject(2, afterCreatedAt);
+                ps.setString(3, afterOrderId);
+            }
+            return ps;
+        }, handler);
+    }
+}
@@ -2,9 +2,13 @@ package com.example.demo.repositories;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
@@ -13,27 +17,51 @@ import com.example.demo.entities.OrderStatus;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, String> {
-    // Custom query methods can be added here if needed
-	 @Query("SELECT o FROM Order o WHERE MONTH(o.createdAt) = :month AND YEAR(o.createdAt) = :year AND o.status = 'SUCCESS'")
-	    List<Order> findSuccessfulOrdersByMonthAndYear(int month, int year);
-	 
-	 
-	 
-	 @Query("SELECT o FROM Order o WHERE DATE(o.createdAt) = :date AND o.status = 'SUCCESS'")
-	    List<Order> findSuccessfulOrdersByDate(LocalDate date);
-
-
-	 
-	 @Query("SELECT o FROM Order o WHERE YEAR(o.createdAt) = :year AND o.status = 'SUCCESS'")
-	    List<Order> findSuccessfulOrdersByYear(int year);
-	 
-	 
-	 
-	 
-	 @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status = 'SUCCESS'")
-	    BigDecimal calculateOverallBusiness();
-
-	    @Query("SELECT o FROM Order o WHERE o.status = :status")
-	    List<Order> findAllByStatus(OrderStatus status);
-	 
+    // Date filters are half-open created_at ranges rather than MONTH()/YEAR()/DATE()
+    // of the column, so they can use the (status, created_at) index
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to")
+    List<Order> findByStatusAndCreatedAtRange(OrderStatus status, LocalDateTime from, LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o "
+            + "WHERE o.status = :status AND o.createdAt >= :from AND o.createdAt < :to")
+    BigDecimal sumTotalAmountByStatusAndCreatedAtRange(OrderStatus status, LocalDateTime from, LocalDateTime to);
+
+    default List<Order> findSuccessfulOrdersByMonthAndYear(int month, int year) {
+        LocalDateTime from = LocalDate.of(year, month, 1).atStartOfDay();
+        return findByStatusAndCreatedAtRange(OrderStatus.SUCCESS, from, from.plusMonths(1));
+    }
+
+    default List<Order> findSuccessfulOrdersByDate(LocalDate date) {
+        LocalDateTime from = date.atStartOfDay();
+        return findByStatusAndCreatedAtRange(OrderStatus.SUCCESS, from, from.plusDays(1));
+    }
+
+    default List<Order> findSuccessfulOrdersByYear(int year) {
+        LocalDateTime from = LocalDate.of(year, 1, 1).atStartOfDay();
+        return findByStatusAndCreatedAtRange(OrderStatus.SUCCESS, from, from.plusYears(1));
+    }
+
+    @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o "
+            + "WHERE o.status = com.example.demo.entities.OrderStatus.SUCCESS")
+    BigDecimal calculateOverallBusiness();
+
+    @Query("SELECT o FROM Order o WHERE o.status = :status")
+    List<Order> findAllByStatus(OrderStatus status);
+
+    // Pages of order history: whole orders, newest first, in OrderItemRepository.findOrderHistory order
+    @Query("SELECT o.orderId FROM Order o WHERE o.userId = :userId "
+            + "AND o.status = com.example.demo.entities.OrderStatus.SUCCESS ORDER BY o.createdAt DESC, o.orderId")
+    Slice<String> findSuccessfulOrderIdsByUserId(int userId, Pageable pageable);
+
+    /**
+     * Moves the user's order from PENDING to SUCCESS. Returns 0 when the
+     * order is not the user's or is no longer PENDING, e.g. because the
+     * same payment is being verified a second time, so each order is
+     * marked paid exactly once.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = com.example.demo.entities.OrderStatus.SUCCESS, o.updatedAt = :now "
+            + "WHERE o.orderId = :orderId AND o.userId = :userId "
+            + "AND o.status = com.example.demo.entities.OrderStatus.PENDING")
+    int markPaid(String orderId, int userId, LocalDateTime now);
 }
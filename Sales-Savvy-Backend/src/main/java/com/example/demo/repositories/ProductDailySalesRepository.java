@@ -0,0 +1,11 @@
+package com.example.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.ProductDailySales;
+
+@Repository
+public interface ProductDailySalesRepository
+        extends JpaRepository<ProductDailySales, ProductDailySales.Key>, ProductDailySalesRepositoryCustom {
+}
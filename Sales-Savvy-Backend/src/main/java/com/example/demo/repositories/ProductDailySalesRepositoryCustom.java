@@ -0,0 +1,38 @@
+package com.example.demo.repositories;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.demo.entities.OrderItem;
+
+public interface ProductDailySalesRepositoryCustom {
+
+    /**
+     * Adds the lines of one successful order to the product_sales_daily rows
+     * of their products for {@code day}, creating them if needed.
+     */
+    void addSales(LocalDate day, List<OrderItem> orderItems);
+
+    /**
+     * Receives one product's totals over a date range.
+     */
+    @FunctionalInterface
+    interface ProductTotalsHandler {
+        void accept(int productId, long unitsSold, BigDecimal revenue);
+    }
+
+    /**
+     * Passes the units sold and revenue of every product sold between
+     * {@code from} and {@code to} (inclusive) to {@code action}. The rows are
+     * read through a range scan of the primary key and summed in the
+     * database, so one row per product comes back however long the range.
+     */
+    void forEachProductTotalBetween(LocalDate from, LocalDate to, ProductTotalsHandler action);
+
+    /**
+     * Replaces product_sales_daily with totals recomputed from order_items.
+     * Like the other rollups, it should run while checkouts are quiet.
+     */
+    void rebuildFromOrders();
+}
@@ -0,0 +1,67 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.ProductDailySales;
+
+class ProductDailySalesRepositoryImpl implements ProductDailySalesRepositoryCustom {
+
+    private static final String ADD_SQL = "INSERT INTO product_sales_daily "
+            + "(sales_date, product_id, units_sold, revenue) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE units_sold = units_sold + VALUES(units_sold), "
+            + "revenue = revenue + VALUES(revenue)";
+
+    private static final String TOTALS_BETWEEN_SQL = "SELECT product_id, SUM(units_sold), SUM(revenue) "
+            + "FROM product_sales_daily WHERE sales_date BETWEEN ? AND ? GROUP BY product_id";
+
+    private static final String REBUILD_SQL = "INSERT INTO product_sales_daily "
+            + "(sales_date, product_id, units_sold, revenue) "
+            + "SELECT CAST(o.created_at AS DATE), i.product_id, SUM(i.quantity), SUM(i.total_price) "
+            + "FROM order_items i JOIN orders o ON o.order_id = i.order_id "
+            + "WHERE o.status = 'SUCCESS' GROUP BY CAST(o.created_at AS DATE), i.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ProductDailySalesRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void addSales(LocalDate day, List<OrderItem> orderItems) {
+        // A product may appear on several lines; one upsert per product keeps the batch free of duplicate keys
+        Map<Integer, ProductDailySales> byProduct = new LinkedHashMap<>();
+        for (OrderItem item : orderItems) {
+            byProduct.merge(item.getProductId(),
+                    new ProductDailySales(day, item.getProductId(), item.getQuantity(), item.getTotalPrice()),
+                    (a, b) -> new ProductDailySales(day, a.getProductId(), a.getUnitsSold() + b.getUnitsSold(),
+                            a.getRevenue().add(b.getRevenue())));
+        }
+        List<ProductDailySales> rows = new ArrayList<>(byProduct.values());
+        jdbcTemplate.batchUpdate(ADD_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setObject(1, row.getSalesDate());
+            ps.setInt(2, row.getProductId());
+            ps.setLong(3, row.getUnitsSold());
+            ps.setBigDecimal(4, row.getRevenue());
+        });
+    }
+
+    @Override
+    public void forEachProductTotalBetween(LocalDate from, LocalDate to, ProductTotalsHandler action) {
+        jdbcTemplate.query(TOTALS_BETWEEN_SQL, rs -> {
+            action.accept(rs.getInt(1), rs.getLong(2), rs.getBigDecimal(3));
+        }, from, to);
+    }
+
+    @Override
+    public void rebuildFromOrders() {
+        jdbcTemplate.update("DELETE FROM product_sales_daily");
+        jdbcTemplate.update(REBUILD_SQL);
+    }
+}
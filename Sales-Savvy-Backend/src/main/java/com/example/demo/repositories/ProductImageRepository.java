@@ -1,5 +1,6 @@
 package com.example.demo.repositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -7,6 +8,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.dtos.ProductImageUrl;
 import com.example.demo.entities.ProductImage;
 
 import jakarta.transaction.Transactional;
@@ -14,6 +16,11 @@ import jakarta.transaction.Transactional;
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImage, Integer> {
     List<ProductImage> findByProduct_ProductId(Integer productId);
+
+    // Image URLs of several products in one query, in insertion order per product
+    @Query("SELECT new com.example.demo.dtos.ProductImageUrl(pi.product.productId, pi.imageUrl) FROM ProductImage pi "
+            + "WHERE pi.product.productId IN :productIds ORDER BY pi.imageId")
+    List<ProductImageUrl> findImageUrlsByProductIds(Collection<Integer> productIds);
     
     @Modifying
     @Transactional
@@ -1,17 +1,77 @@
 package com.example.demo.repositories;
 
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.example.demo.entities.Product;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductRepositoryCustom {
+    // Rows the export cursors read per round trip
+    String EXPORT_FETCH_SIZE = "500";
+
+    // Category is fetched in the same query instead of one select per distinct category
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    @EntityGraph(attributePaths = "category")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Product> findByCategory_CategoryId(Integer categoryId);
-    
+
+    // Offset pages; Page variants also run a count query, Slice variants do not
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    @Query("SELECT p FROM Product p")
+    Slice<Product> findSlice(Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    Page<Product> findPageByCategory_CategoryId(Integer categoryId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "category")
+    Slice<Product> findSliceByCategory_CategoryId(Integer categoryId, Pageable pageable);
+
+    // Keyset pages: seek past the last productId seen instead of skipping rows
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByProductIdGreaterThanOrderByProductIdAsc(Integer afterProductId, Limit limit);
+
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByCategory_CategoryIdAndProductIdGreaterThanOrderByProductIdAsc(Integer categoryId,
+            Integer afterProductId, Limit limit);
+
+    // Forward-only cursors for the catalog export, in product ID order. They
+    // must be consumed and closed inside a transaction; rows are read
+    // EXPORT_FETCH_SIZE at a time and skip the second-level cache.
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.productId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+    Stream<Product> streamAllForExport();
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category c WHERE c.categoryId = :categoryId ORDER BY p.productId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE") })
+    Stream<Product> streamForExportByCategoryId(Integer categoryId);
+
     @Query("SELECT p.category.categoryName FROM Product p WHERE p.productId = :productId")
     String findCategoryNameByProductId(int productId);
 }
\ No newline at end of file
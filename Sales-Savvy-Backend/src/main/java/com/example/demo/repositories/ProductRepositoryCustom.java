@@ -0,0 +1,27 @@
+package com.example.demo.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Decrements the stock of every product by the given quantity, but only
+     * where enough stock is left. All updates are sent as one JDBC batch,
+     * ordered by product ID so concurrent batches lock rows in the same order.
+     *
+     * @param quantitiesByProduct quantity to take per product ID
+     * @return IDs of the products whose stock was too low; those rows are unchanged
+     */
+    List<Integer> decrementStock(Map<Integer, Integer> quantitiesByProduct);
+
+    /**
+     * Gives stock back, e.g. when a reservation is released. All updates are
+     * sent as one JDBC batch, ordered by product ID like
+     * {@link #decrementStock(Map)}.
+     */
+    void incrementStock(Map<Integer, Integer> quantitiesByProduct);
+
+    Map<Integer, Integer> findStockByIds(Collection<Integer> productIds);
+}
@@ -0,0 +1,83 @@
+package com.example.demo.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String DECREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock - ?, version = version + 1 WHERE product_id = ? AND stock >= ?";
+
+    private static final String INCREMENT_STOCK_SQL =
+            "UPDATE products SET stock = stock + ?, version = version + 1 WHERE product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    ProductRepositoryImpl(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    @Override
+    public List<Integer> decrementStock(Map<Integer, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Integer, Integer>> lines = inLockOrder(quantitiesByProduct);
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_STOCK_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setInt(2, line.getKey());
+            ps.setInt(3, line.getValue());
+        })[0];
+
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (updated[i] == 0) {
+                failed.add(lines.get(i).getKey());
+            }
+        }
+        return failed;
+    }
+
+    @Override
+    public void incrementStock(Map<Integer, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Integer, Integer>> lines = inLockOrder(quantitiesByProduct);
+        jdbcTemplate.batchUpdate(INCREMENT_STOCK_SQL, lines, lines.size(), (ps, line) -> {
+            ps.setInt(1, line.getValue());
+            ps.setInt(2, line.getKey());
+        });
+    }
+
+    // Every batch locks its product rows by ascending ID, so two checkouts
+    // sharing products cannot each hold a row the other is waiting for
+    private static List<Map.Entry<Integer, Integer>> inLockOrder(Map<Integer, Integer> quantitiesByProduct) {
+        List<Map.Entry<Integer, Integer>> lines = new ArrayList<>(quantitiesByProduct.entrySet());
+        lines.sort(Map.Entry.comparingByKey());
+        return lines;
+    }
+
+    @Override
+    public Map<Integer, Integer> findStockByIds(Collection<Integer> productIds) {
+        Map<Integer, Integer> stockByProduct = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return stockByProduct;
+        }
+        namedParameterJdbcTemplate.query("SELECT product_id, stock FROM products WHERE product_id IN (:ids)",
+                new MapSqlParameterSource("ids", productIds),
+                rs -> {
+                    stockByProduct.put(rs.getInt("product_id"), rs.getInt("stock"));
+                });
+        return stockByProduct;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.demo.entities.ReservationStatus;
+import com.example.demo.entities.StockReservation;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Integer> {
+
+    List<StockReservation> findByOrderIdAndStatus(String orderId, ReservationStatus status);
+
+    List<StockReservation> findByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(ReservationStatus status,
+            LocalDateTime cutoff, Limit limit);
+
+    /**
+     * Moves one reservation from {@code from} to {@code to}. Returns 0 when
+     * another transaction has already moved it, so each reservation is
+     * committed or released exactly once.
+     */
+    @Modifying
+    @Query("UPDATE StockReservation r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") int id, @Param("from") ReservationStatus from, @Param("to") ReservationStatus to);
+}
@@ -2,38 +2,53 @@ package com.example.demo.services;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Date;
 import java.util.Optional;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.example.demo.cache.VerifiedTokenCache;
+import com.example.demo.dtos.TokenClaims;
 import com.example.demo.entities.JWTToken;
+import com.example.demo.entities.Role;
 import com.example.demo.entities.User;
 import com.example.demo.repositories.JWTTokenRepository;
 import com.example.demo.repositories.UserRepository;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
 @Service
 public class AuthService {
+	private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
 	private final Key SIGNING_KEY;
+	// Immutable once built, so one instance is shared by all request threads
+	private final JwtParser jwtParser;
 
 	private final UserRepository userRepository;
 	private final JWTTokenRepository jwtTokenRepository;
 	private final BCryptPasswordEncoder passwordEncoder;
+	private final VerifiedTokenCache tokenCache;
 
 	// Injecting jwt.secret from properties file
 	@Autowired
 	public AuthService(UserRepository userRepository, JWTTokenRepository jwtTokenRepository,
-			@Value("${jwt.secret}") String jwtSecret) {
+			VerifiedTokenCache tokenCache, @Value("${jwt.secret}") String jwtSecret) {
 		this.userRepository = userRepository;
 		this.jwtTokenRepository = jwtTokenRepository;
+		this.tokenCache = tokenCache;
 		this.passwordEncoder = new BCryptPasswordEncoder();
 
 		// Ensure the key length is at least 64 bytes
@@ -42,6 +57,7 @@ public class AuthService {
 					"JWT_SECRET in application.properties must be at least 64 bytes long for HS512.");
 		}
 		this.SIGNING_KEY = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+		this.jwtParser = Jwts.parserBuilder().setSigningKey(SIGNING_KEY).build();
 	}
 
 	public User authenticate(String username, String password) {
@@ -77,12 +93,17 @@ public class AuthService {
 	}
 
 	public void saveToken(User user, String token) {
+		if (token.length() > JWTToken.MAX_TOKEN_LENGTH) {
+			throw new IllegalArgumentException("Token longer than " + JWTToken.MAX_TOKEN_LENGTH + " characters");
+		}
 		JWTToken jwtToken = new JWTToken(user, token, LocalDateTime.now().plusHours(1));
+		jwtToken.setTokenHash(VerifiedTokenCache.hash(token));
 		jwtTokenRepository.save(jwtToken);
 	}
 
 	public void logout(User user) {
 		jwtTokenRepository.deleteByUserId(user.getUserId());
+		tokenCache.evictUserAfterCommit(user.getUsername());
 	}
 	public User getUserByUsername(String username) {
 	    return userRepository.findByUsername(username)
@@ -90,28 +111,56 @@ public class AuthService {
 	}
 
 	public boolean validateToken(String token) {
+		return verifyToken(token).isPresent();
+	}
+
+	/**
+	 * Verifies the token signature and its jwt_tokens entry, parsing the JWT at
+	 * most once. Callers should use the returned claims instead of parsing the
+	 * token again.
+	 *
+	 * @return the verified claims, or empty if the token is invalid or expired
+	 */
+	public Optional<TokenClaims> verifyToken(String token) {
+		// Tokens already matched against the database skip parsing and the lookup until they expire
+		TokenClaims cached = tokenCache.get(token);
+		if (cached != null) {
+			return Optional.of(cached);
+		}
+
 		try {
-			System.err.println("VALIDATING TOKEN...");
+			log.debug("Validating token");
 
 			// Parse and validate the token
-			Jwts.parserBuilder().setSigningKey(SIGNING_KEY).build().parseClaimsJws(token);
+			Claims claims = jwtParser.parseClaimsJws(token).getBody();
 
 			// Check if the token exists in the database and is not expired
-			Optional<JWTToken> jwtToken = jwtTokenRepository.findByToken(token);
-			if (jwtToken.isPresent()) {
-				System.err.println("Token Expiry: " + jwtToken.get().getExpiresAt());
-				System.err.println("Current Time: " + LocalDateTime.now());
-				return jwtToken.get().getExpiresAt().isAfter(LocalDateTime.now());
+			Optional<JWTToken> jwtToken = jwtTokenRepository.findFirstByTokenHash(VerifiedTokenCache.hash(token));
+			if (jwtToken.isEmpty()) {
+				return Optional.empty();
+			}
+
+			LocalDateTime now = LocalDateTime.now();
+			if (!jwtToken.get().getExpiresAt().isAfter(now)) {
+				log.debug("Token for {} expired at {} (now {})", claims.getSubject(), jwtToken.get().getExpiresAt(), now);
+				return Optional.empty();
 			}
 
-			return false;
+			String role = claims.get("role", String.class);
+			TokenClaims verified = new TokenClaims(claims.getSubject(), role != null ? Role.valueOf(role) : null,
+					claims.getExpiration().toInstant());
+
+			Instant storedExpiry = jwtToken.get().getExpiresAt().atZone(ZoneId.systemDefault()).toInstant();
+			tokenCache.put(token, verified,
+					storedExpiry.isBefore(verified.expiresAt()) ? storedExpiry : verified.expiresAt());
+			return Optional.of(verified);
 		} catch (Exception e) {
-			System.err.println("Token validation failed: " + e.getMessage());
-			return false;
+			log.debug("Token validation failed: {}", e.getMessage());
+			return Optional.empty();
 		}
 	}
 
 	public String extractUsername(String token) {
-		return Jwts.parserBuilder().setSigningKey(SIGNING_KEY).build().parseClaimsJws(token).getBody().getSubject();
+		return jwtParser.parseClaimsJws(token).getBody().getSubject();
 	}
 }
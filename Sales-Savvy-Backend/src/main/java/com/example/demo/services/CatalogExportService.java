@@ -0,0 +1,164 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.ProductRepository;
+
+import jakarta.persistence.EntityManager;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Writes the catalog as NDJSON or CSV for bulk consumers.
+ *
+ * Products are read through a database cursor and handled in chunks: the
+ * images of a chunk are loaded with one query, its rows are written and
+ * flushed, and the persistence context is cleared before the next chunk.
+ * Memory use therefore depends on the chunk size, not on the catalog size.
+ */
+@Service
+public class CatalogExportService {
+
+    private static final String CSV_HEADER = "product_id,name,description,price,stock,category,images";
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public CatalogExportService(ProductRepository productRepository,
+                                ProductService productService,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${catalog.export.chunk-size:500}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    /**
+     * Receives the products of one chunk with their image URLs. The products
+     * are detached once it returns.
+     */
+    @FunctionalInterface
+    public interface ChunkHandler {
+        void accept(List<Product> chunk, Map<Integer, List<String>> imagesByProduct) throws IOException;
+    }
+
+    /**
+     * Writes every product, or those of one category, in product ID order.
+     * The output stream is flushed after each chunk but not closed.
+     *
+     * @param categoryId the category to export, or null for the whole catalog
+     */
+    public void export(Integer categoryId, ExportFormat format, OutputStream out) {
+        try (ExportRowWriter<ProductRow> writer = ExportRowWriter.create(format, out, objectMapper, CSV_HEADER,
+                CatalogExportService::writeJson, CatalogExportService::writeCsv)) {
+            forEachChunk(categoryId, (chunk, imagesByProduct) -> {
+                for (Product product : chunk) {
+                    writer.write(new ProductRow(product,
+                            imagesByProduct.getOrDefault(product.getProductId(), List.of())));
+                }
+                writer.flush();
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads every product, or those of one category, through the export
+     * cursor in product ID order and passes them on chunk by chunk, each
+     * with its images loaded in one query.
+     *
+     * @param categoryId the category to read, or null for the whole catalog
+     */
+    public void forEachChunk(Integer categoryId, ChunkHandler handler) {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> products = categoryId == null
+                    ? productRepository.streamAllForExport()
+                    : productRepository.streamForExportByCategoryId(categoryId)) {
+                List<Product> chunk = new ArrayList<>(chunkSize);
+                Iterator<Product> iterator = products.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == chunkSize) {
+                        handleChunk(chunk, handler);
+                    }
+                }
+                handleChunk(chunk, handler);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void handleChunk(List<Product> chunk, ChunkHandler handler) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<Integer, List<String>> imagesByProduct = productService.getProductImages(
+                chunk.stream().map(Product::getProductId).toList());
+        handler.accept(chunk, imagesByProduct);
+        chunk.clear();
+        // Nothing is modified here, so detaching is enough to let the chunk be collected
+        entityManager.clear();
+    }
+
+    private record ProductRow(Product product, List<String> images) {
+    }
+
+    private static void writeJson(JsonGenerator generator, ProductRow row) {
+        Product product = row.product();
+        generator.writeStartObject();
+        generator.writePOJOProperty("product_id", product.getProductId());
+        generator.writeStringProperty("name", product.getName());
+        generator.writeStringProperty("description", product.getDescription());
+        generator.writePOJOProperty("price", product.getPrice());
+        generator.writePOJOProperty("stock", product.getStock());
+        generator.writeStringProperty("category", categoryName(product));
+        generator.writeArrayPropertyStart("images");
+        for (String image : row.images()) {
+            generator.writeString(image);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static void writeCsv(ExportRowWriter.CsvLines lines, ProductRow row) throws IOException {
+        Product product = row.product();
+        lines.field(product.getProductId())
+                .field(product.getName())
+                .field(product.getDescription())
+                .field(product.getPrice())
+                .field(product.getStock())
+                .field(categoryName(product))
+                // Several URLs share one cell, separated by spaces
+                .field(String.join(" ", row.images()));
+        lines.endLine();
+    }
+
+    private static String categoryName(Product product) {
+        return product.getCategory() != null ? product.getCategory().getCategoryName() : null;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.demo.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Writes export rows to a response stream as NDJSON (one object per line)
+ * or CSV (a header, then CRLF-terminated lines). Closing flushes but leaves
+ * the stream open; it belongs to the caller.
+ */
+interface ExportRowWriter<T> extends AutoCloseable {
+
+    void write(T row) throws IOException;
+
+    void flush() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    @FunctionalInterface
+    interface JsonRow<T> {
+        void write(JsonGenerator generator, T row);
+    }
+
+    @FunctionalInterface
+    interface CsvRow<T> {
+        void write(CsvLines lines, T row) throws IOException;
+    }
+
+    /**
+     * @param jsonRow writes one row as a single JSON object
+     * @param csvRow  writes one row as one or more CSV lines
+     */
+    static <T> ExportRowWriter<T> create(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                                         String csvHeader, JsonRow<T> jsonRow, CsvRow<T> csvRow) throws IOException {
+        return format == ExportFormat.CSV
+                ? new CsvWriter<>(out, csvHeader, csvRow)
+                : new NdjsonWriter<>(out, objectMapper, jsonRow);
+    }
+
+    /**
+     * Builds CSV lines field by field, quoting fields that need it and
+     * writing nulls as empty fields.
+     */
+    final class CsvLines {
+        private final Writer writer;
+        private boolean lineStarted;
+
+        private CsvLines(Writer writer) {
+            this.writer = writer;
+        }
+
+        public CsvLines field(String value) throws IOException {
+            if (lineStarted) {
+                writer.write(',');
+            }
+            lineStarted = true;
+            writer.write(escape(value));
+            return this;
+        }
+
+        public CsvLines field(BigDecimal value) throws IOException {
+            return field(value != null ? value.toPlainString() : null);
+        }
+
+        public CsvLines field(Object value) throws IOException {
+            return field(value != null ? value.toString() : null);
+        }
+
+        public void endLine() throws IOException {
+            writer.write("\r\n");
+            lineStarted = false;
+        }
+
+        private static String escape(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    final class NdjsonWriter<T> implements ExportRowWriter<T> {
+        private final OutputStream out;
+        private final JsonGenerator generator;
+        private final JsonRow<T> jsonRow;
+
+        private NdjsonWriter(OutputStream out, ObjectMapper objectMapper, JsonRow<T> jsonRow) {
+            this.out = out;
+            // One object per line: each row ends with a newline instead of the default space separator
+            this.generator = objectMapper.writer().withRootValueSeparator("").createGenerator(out);
+            this.jsonRow = jsonRow;
+        }
+
+        @Override
+        public void write(T row) {
+            jsonRow.write(generator, row);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.flush();
+            out.flush();
+        }
+    }
+
+    final class CsvWriter<T> implements ExportRowWriter<T> {
+        private final Writer writer;
+        private final CsvLines lines;
+        private final CsvRow<T> csvRow;
+
+        private CsvWriter(OutputStream out, String header, CsvRow<T> csvRow) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.lines = new CsvLines(writer);
+            this.csvRow = csvRow;
+            writer.write(header);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(T row) throws IOException {
+            csvRow.write(lines, row);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
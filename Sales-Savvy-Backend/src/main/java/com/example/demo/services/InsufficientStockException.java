@@ -0,0 +1,22 @@
+package com.example.demo.services;
+
+import java.util.List;
+
+import com.example.demo.dtos.StockShortage;
+
+/**
+ * Thrown when an order cannot be placed because some lines are out of stock.
+ */
+public class InsufficientStockException extends RuntimeException {
+
+    private final List<StockShortage> shortages;
+
+    public InsufficientStockException(List<StockShortage> shortages) {
+        super("Insufficient stock for " + shortages.size() + " product(s)");
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<StockShortage> getShortages() {
+        return shortages;
+    }
+}
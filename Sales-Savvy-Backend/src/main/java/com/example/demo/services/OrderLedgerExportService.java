@@ -0,0 +1,162 @@
+package com.example.demo.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.dtos.LedgerLine;
+import com.example.demo.repositories.OrderItemRepository;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Writes every successful order with its items, for reconciliation against
+ * payment settlements.
+ *
+ * Orders and items are read with one ordered cursor query and written as
+ * they arrive: NDJSON has one line per order with its items nested, CSV one
+ * row per item with the order columns repeated. Only the items of the order
+ * being written are held in memory.
+ *
+ * Orders come out by creation time, then order ID. A client that lost the
+ * connection can pass the created_at and order_id of the last order it
+ * received in full and get the orders after it.
+ */
+@Service
+public class OrderLedgerExportService {
+
+    private static final String CSV_HEADER = "order_id,user_id,total_amount,created_at,updated_at,"
+            + "item_id,product_id,quantity,price_per_unit,total_price";
+
+    // Output is flushed after this many orders
+    private static final int FLUSH_INTERVAL = 200;
+
+    private final OrderItemRepository orderItemRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderLedgerExportService(OrderItemRepository orderItemRepository, ObjectMapper objectMapper) {
+        this.orderItemRepository = orderItemRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the successful orders after the checkpoint, or all of them.
+     * The output stream is flushed but not closed.
+     *
+     * @param afterCreatedAt created_at of the last order already received, or null
+     * @param afterOrderId   order_id of that order; required with {@code afterCreatedAt}
+     */
+    public void export(ExportFormat format, LocalDateTime afterCreatedAt, String afterOrderId, OutputStream out) {
+        checkCheckpoint(afterCreatedAt, afterOrderId);
+        try (ExportRowWriter<List<LedgerLine>> writer = ExportRowWriter.create(format, out, objectMapper, CSV_HEADER,
+                OrderLedgerExportService::writeJson, OrderLedgerExportService::writeCsv)) {
+            OrderBuffer buffer = new OrderBuffer(writer);
+            orderItemRepository.forEachLedgerLine(afterCreatedAt, afterOrderId, buffer::accept);
+            buffer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Rejects a checkpoint with only one of its two parts; the order ID alone
+     * does not say where an order falls in creation order.
+     */
+    public static void checkCheckpoint(LocalDateTime afterCreatedAt, String afterOrderId) {
+        if ((afterCreatedAt == null) != (afterOrderId == null || afterOrderId.isBlank())) {
+            throw new IllegalArgumentException("afterCreatedAt and afterOrderId must be given together");
+        }
+    }
+
+    // Collects the lines of one order and hands them over once the next order starts
+    private static final class OrderBuffer {
+        private final ExportRowWriter<List<LedgerLine>> writer;
+        private final List<LedgerLine> lines = new ArrayList<>();
+        private int written;
+
+        OrderBuffer(ExportRowWriter<List<LedgerLine>> writer) {
+            this.writer = writer;
+        }
+
+        void accept(LedgerLine line) {
+            if (!lines.isEmpty() && !Objects.equals(lines.get(0).orderId(), line.orderId())) {
+                writeOrder();
+            }
+            lines.add(line);
+        }
+
+        void finish() {
+            if (!lines.isEmpty()) {
+                writeOrder();
+            }
+        }
+
+        private void writeOrder() {
+            try {
+                writer.write(lines);
+                lines.clear();
+                if (++written % FLUSH_INTERVAL == 0) {
+                    writer.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // One line per order with its items nested
+    private static void writeJson(JsonGenerator generator, List<LedgerLine> order) {
+        LedgerLine first = order.get(0);
+        generator.writeStartObject();
+        generator.writeStringProperty("order_id", first.orderId());
+        generator.writeNumberProperty("user_id", first.userId());
+        generator.writePOJOProperty("total_amount", first.totalAmount());
+        generator.writeStringProperty("created_at", timestamp(first.createdAt()));
+        generator.writeStringProperty("updated_at", timestamp(first.updatedAt()));
+        generator.writeArrayPropertyStart("items");
+        for (LedgerLine line : order) {
+            if (line.itemId() == null) {
+                continue;
+            }
+            generator.writeStartObject();
+            generator.writePOJOProperty("item_id", line.itemId());
+            generator.writePOJOProperty("product_id", line.productId());
+            generator.writePOJOProperty("quantity", line.quantity());
+            generator.writePOJOProperty("price_per_unit", line.pricePerUnit());
+            generator.writePOJOProperty("total_price", line.totalPrice());
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    // One line per item, repeating the order columns
+    private static void writeCsv(ExportRowWriter.CsvLines lines, List<LedgerLine> order) throws IOException {
+        for (LedgerLine line : order) {
+            lines.field(line.orderId())
+                    .field(line.userId())
+                    .field(line.totalAmount())
+                    .field(timestamp(line.createdAt()))
+                    .field(timestamp(line.updatedAt()))
+                    .field(line.itemId())
+                    .field(line.productId())
+                    .field(line.quantity())
+                    .field(line.pricePerUnit())
+                    .field(line.totalPrice());
+            lines.endLine();
+        }
+    }
+
+    // Full precision, so a checkpoint taken from the output matches the stored value exactly
+    private static String timestamp(LocalDateTime value) {
+        return value != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value) : null;
+    }
+}
@@ -1,20 +1,18 @@
 package com.example.demo.services;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
-import com.example.demo.entities.OrderItem;
-import com.example.demo.entities.Product;
-import com.example.demo.entities.ProductImage;
+import com.example.demo.dtos.OrderHistoryLine;
+import com.example.demo.dtos.OrderHistoryView;
 import com.example.demo.entities.User;
 import com.example.demo.repositories.OrderItemRepository;
-import com.example.demo.repositories.ProductImageRepository;
-import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.OrderRepository;
 
 @Service
 public class OrderService {
@@ -23,55 +21,51 @@ public class OrderService {
     private OrderItemRepository orderItemRepository;
 
     @Autowired
-    private ProductRepository productRepository;
-
-    @Autowired
-    private ProductImageRepository productImageRepository;
+    private OrderRepository orderRepository;
 
     /**
      * Fetches all successful orders for a given user and returns the required response format.
      *
      * @param user The authenticated user object.
-     * @return A map containing the user's role, username, and ordered products.
+     * @return The user's role, username, and ordered products.
      */
-    public Map<String, Object> getOrdersForUser(User user) {
-        // Fetch all successful order items for the user
-        List<OrderItem> orderItems = orderItemRepository.findSuccessfulOrderItemsByUserId(user.getUserId());
-
-        // Prepare the response map
-        Map<String, Object> response = new HashMap<>();
-        response.put("username", user.getUsername());
-        response.put("role", user.getRole()); // Directly use the role as it is an enum mapped to a string
-
-        // Transform order items into a list of product details
-        List<Map<String, Object>> products = new ArrayList<>();
-        for (OrderItem item : orderItems) {
-            Product product = productRepository.findById(item.getProductId()).orElse(null);
-            if (product == null) {
-                continue; // Skip if the product does not exist
-            }
-
-            // Fetch the product image (if available)
-            List<ProductImage> images = productImageRepository.findByProduct_ProductId(product.getProductId());
-            String imageUrl = images.isEmpty() ? null : images.get(0).getImageUrl();
-
-            // Create a product details map
-            Map<String, Object> productDetails = new HashMap<>();
-            productDetails.put("order_id", item.getOrder().getOrderId());
-            productDetails.put("quantity", item.getQuantity());
-            productDetails.put("total_price", item.getTotalPrice());
-            productDetails.put("image_url", imageUrl);
-            productDetails.put("product_id", product.getProductId());
-            productDetails.put("name", product.getName());
-            productDetails.put("description", product.getDescription());
-            productDetails.put("price_per_unit", item.getPricePerUnit());
+    public OrderHistoryView getOrdersForUser(User user) {
+        return getOrdersForUser(user, Pageable.unpaged());
+    }
 
-            products.add(productDetails);
+    /**
+     * Fetches one page of the user's successful orders, newest first, with all
+     * of their lines. A page selects whole orders by creation time and then
+     * reads their lines with product details and images joined in, so it
+     * takes two queries however many lines the orders have.
+     *
+     * @param user     The authenticated user object.
+     * @param pageable The page of orders to return; unpaged returns all orders in one query.
+     * @return The user's role, username, and ordered products.
+     */
+    public OrderHistoryView getOrdersForUser(User user, Pageable pageable) {
+        // Lines whose product no longer exists are left out by the join
+        if (pageable.isUnpaged()) {
+            List<OrderHistoryLine> lines = orderItemRepository.findOrderHistory(user.getUserId());
+            return new OrderHistoryView(user.getUsername(), user.getRole(), lines, false);
         }
 
-        // Add the products list to the response
-        response.put("products", products);
+        Slice<String> orderIds = orderRepository.findSuccessfulOrderIdsByUserId(user.getUserId(), pageable);
+        List<OrderHistoryLine> lines = orderIds.isEmpty()
+                ? List.of()
+                : orderItemRepository.findOrderHistoryByOrderIds(orderIds.getContent());
+        return new OrderHistoryView(user.getUsername(), user.getRole(), lines, orderIds.hasNext());
+    }
 
-        return response;
+    /**
+     * Passes each of the user's successful order lines to {@code action},
+     * newest orders first, as they are read from the database. Used to
+     * stream the history without holding it in memory.
+     *
+     * @param user   The authenticated user object.
+     * @param action Receives the order lines one by one.
+     */
+    public void forEachOrderLine(User user, Consumer<OrderHistoryLine> action) {
+        orderItemRepository.forEachOrderHistoryLine(user.getUserId(), action);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package com.example.demo.services;
+
+import org.json.JSONObject;
+
+import com.razorpay.RazorpayException;
+
+/**
+ * Remote calls to the payment provider. Callers go through
+ * {@link PaymentGatewayClient}, which bounds and times them.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Creates an order with the provider.
+     *
+     * @return the provider's order ID
+     */
+    String createOrder(JSONObject orderRequest) throws RazorpayException;
+}
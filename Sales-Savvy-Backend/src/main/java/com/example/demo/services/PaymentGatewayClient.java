@@ -0,0 +1,217 @@
+package com.example.demo.services;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.razorpay.RazorpayException;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs payment gateway calls off the request thread so a slow provider
+ * cannot tie up request threads or database connections.
+ *
+ * Calls are limited by a bulkhead: at most {@code threads} run at once and
+ * at most {@code queue-capacity} more wait; anything beyond that is rejected
+ * straight away. Callers wait at most {@code timeout-ms} for a result.
+ * Calls run on a small platform thread pool, or on virtual threads when
+ * {@code spring.threads.virtual.enabled} is set; the limits are the same in
+ * both modes. Latency is recorded for every completed call and exposed by
+ * {@link #stats()}.
+ */
+@Component
+public class PaymentGatewayClient {
+
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final PaymentGateway paymentGateway;
+    private final AsyncTaskExecutor executor;
+    private final ThreadPoolExecutor platformPool;
+    private final boolean virtualThreads;
+    private final int threads;
+    private final int maxAdmitted;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final long timeoutMillis;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder latencySamples = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+    private final long[] recentLatencyNanos = new long[LATENCY_SAMPLES];
+    private int recentCount;
+    private int recentNext;
+
+    public PaymentGatewayClient(PaymentGateway paymentGateway,
+                                @Value("${payment.gateway.threads:16}") int threads,
+                                @Value("${payment.gateway.queue-capacity:32}") int queueCapacity,
+                                @Value("${payment.gateway.timeout-ms:10000}") long timeoutMillis,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.paymentGateway = paymentGateway;
+        this.timeoutMillis = timeoutMillis;
+        this.virtualThreads = virtualThreads;
+        this.threads = threads;
+        this.maxAdmitted = threads + queueCapacity;
+        this.admitted = new Semaphore(maxAdmitted);
+        this.running = new Semaphore(threads);
+
+        if (virtualThreads) {
+            this.platformPool = null;
+            this.executor = new VirtualThreadTaskExecutor("payment-gateway-");
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.platformPool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "payment-gateway-" + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.platformPool.allowCoreThreadTimeOut(true);
+            this.executor = new TaskExecutorAdapter(platformPool);
+        }
+    }
+
+    public String createOrder(JSONObject orderRequest) throws RazorpayException {
+        calls.increment();
+        if (!admitted.tryAcquire()) {
+            rejections.increment();
+            throw new PaymentGatewayUnavailableException("Payment gateway is busy, please retry");
+        }
+
+        // Whoever flips this first owns the admission slot: the task when it
+        // starts, or the caller when it gives up before the task started.
+        AtomicBoolean started = new AtomicBoolean();
+        Future<String> result = executor.submit(() -> {
+            if (started.getAndSet(true)) {
+                return null;
+            }
+            try {
+                running.acquire();
+                try {
+                    return timed(() -> paymentGateway.createOrder(orderRequest));
+                } finally {
+                    running.release();
+                }
+            } finally {
+                admitted.release();
+            }
+        });
+
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            giveUp(result, started);
+            throw new PaymentGatewayUnavailableException("Payment gateway did not respond in time", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveUp(result, started);
+            throw new PaymentGatewayUnavailableException("Interrupted while waiting for the payment gateway", e);
+        } catch (ExecutionException e) {
+            failures.increment();
+            if (e.getCause() instanceof RazorpayException razorpayException) {
+                throw razorpayException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RazorpayException(e.getCause().getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        long[] samples;
+        synchronized (recentLatencyNanos) {
+            samples = Arrays.copyOf(recentLatencyNanos, recentCount);
+        }
+        Arrays.sort(samples);
+        long recorded = latencySamples.sum();
+        int inFlight = maxAdmitted - admitted.availablePermits();
+        int active = threads - running.availablePermits();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("virtual_threads", virtualThreads);
+        stats.put("calls", calls.sum());
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("rejections", rejections.sum());
+        stats.put("active", active);
+        stats.put("queued", Math.max(0, inFlight - active));
+        stats.put("max_concurrent", threads);
+        stats.put("avg_ms", recorded == 0 ? 0.0 : totalLatencyNanos.sum() / 1_000_000.0 / recorded);
+        stats.put("max_ms", maxLatencyNanos.get() / 1_000_000.0);
+        stats.put("p50_ms", percentileMillis(samples, 0.50));
+        stats.put("p95_ms", percentileMillis(samples, 0.95));
+        stats.put("p99_ms", percentileMillis(samples, 0.99));
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (platformPool != null) {
+            platformPool.shutdownNow();
+        }
+    }
+
+    private void giveUp(Future<String> result, AtomicBoolean started) {
+        result.cancel(true);
+        if (!started.getAndSet(true)) {
+            admitted.release();
+        }
+    }
+
+    private <T> T timed(GatewayCall<T> call) throws RazorpayException {
+        long start = System.nanoTime();
+        try {
+            return call.run();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    private void record(long latencyNanos) {
+        latencySamples.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+        synchronized (recentLatencyNanos) {
+            recentLatencyNanos[recentNext] = latencyNanos;
+            recentNext = (recentNext + 1) % LATENCY_SAMPLES;
+            recentCount = Math.min(recentCount + 1, LATENCY_SAMPLES);
+        }
+    }
+
+    private static double percentileMillis(long[] sortedSamples, double percentile) {
+        if (sortedSamples.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sortedSamples.length) - 1;
+        return sortedSamples[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    @FunctionalInterface
+    private interface GatewayCall<T> {
+        T run() throws RazorpayException;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.services;
+
+/**
+ * Thrown when the payment provider could not be called: all gateway slots
+ * were busy or the call did not finish in time.
+ */
+public class PaymentGatewayUnavailableException extends RuntimeException {
+
+    public PaymentGatewayUnavailableException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
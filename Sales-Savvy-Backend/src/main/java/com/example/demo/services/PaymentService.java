@@ -3,50 +3,62 @@ package com.example.demo.services;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.example.demo.cache.CartStore;
+import com.example.demo.dtos.CheckoutResult;
+import com.example.demo.dtos.StockShortage;
 import com.example.demo.entities.CartItem;
 import com.example.demo.entities.Order;
 import com.example.demo.entities.OrderItem;
 import com.example.demo.entities.OrderStatus;
-import com.example.demo.entities.Product;
 import com.example.demo.repositories.CartRepository;
 import com.example.demo.repositories.OrderItemRepository;
 import com.example.demo.repositories.OrderRepository;
-import com.example.demo.repositories.ProductRepository;
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class PaymentService {
 
-    @Value("${razorpay.key_id}")
-    private String razorpayKeyId;
-
     @Value("${razorpay.key_secret}")
     private String razorpayKeySecret;
 
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final CartRepository cartRepository;
-    private final ProductRepository productRepository;
+    private final StockReservationService stockReservationService;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final CartStore cartStore;
+    private final SalesReportService salesReportService;
+    private final TransactionTemplate transactionTemplate;
 
-    public PaymentService(OrderRepository orderRepository, OrderItemRepository orderItemRepository, CartRepository cartRepository, ProductRepository productRepository) {
+    public PaymentService(OrderRepository orderRepository, OrderItemRepository orderItemRepository, CartRepository cartRepository, StockReservationService stockReservationService, PaymentGatewayClient paymentGatewayClient, CartStore cartStore, SalesReportService salesReportService, PlatformTransactionManager transactionManager) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.cartRepository = cartRepository;
-        this.productRepository = productRepository;
+        this.stockReservationService = stockReservationService;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.cartStore = cartStore;
+        this.salesReportService = salesReportService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * Creates the Razorpay order, then records it and reserves the cart's
+     * stock. The remote call runs before the transaction starts so no
+     * database connection is held while waiting for the gateway.
+     */
     public String createOrder(int userId, BigDecimal totalAmount, List<OrderItem> cartItems) throws RazorpayException {
-        // Create Razorpay client
-        RazorpayClient razorpayClient = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-
         // Prepare Razorpay order request
         var orderRequest = new JSONObject();
         orderRequest.put("amount", totalAmount.multiply(BigDecimal.valueOf(100)).intValue()); // Amount in paise
@@ -54,23 +66,34 @@ public class PaymentService {
         orderRequest.put("receipt", "txn_" + System.currentTimeMillis());
 
         // Create Razorpay order
-        com.razorpay.Order razorpayOrder = razorpayClient.orders.create(orderRequest);
-
-        // Save order details in the database
-        Order order = new Order();
-        order.setOrderId(razorpayOrder.get("id"));
-        order.setUserId(userId);
-        order.setTotalAmount(totalAmount);
-        order.setStatus(OrderStatus.PENDING);
-        order.setCreatedAt(LocalDateTime.now());
-        orderRepository.save(order);
-
-        return razorpayOrder.get("id");
+        String razorpayOrderId = paymentGatewayClient.createOrder(orderRequest);
+
+        return transactionTemplate.execute(status -> {
+            // Save order details in the database
+            Order order = new Order();
+            order.setOrderId(razorpayOrderId);
+            order.setUserId(userId);
+            order.setTotalAmount(totalAmount);
+            order.setStatus(OrderStatus.PENDING);
+            order.setCreatedAt(LocalDateTime.now());
+            orderRepository.save(order);
+
+            // Hold the stock of the cart until the payment is verified or times out
+            cartStore.flush(userId);
+            Map<Integer, Integer> quantitiesByProduct =
+                    quantitiesByProduct(cartRepository.findCartItemsWithProductDetails(userId));
+            List<StockShortage> shortages = stockReservationService.reserve(razorpayOrderId, quantitiesByProduct);
+            if (!shortages.isEmpty()) {
+                throw new InsufficientStockException(shortages);
+            }
+
+            return razorpayOrderId;
+        });
     }
 
     @Transactional
-    public boolean verifyPayment(String razorpayOrderId, String razorpayPaymentId,
-                                 String razorpaySignature, int userId) {
+    public CheckoutResult verifyPayment(String razorpayOrderId, String razorpayPaymentId,
+                                        String razorpaySignature, int userId) {
         try {
             JSONObject attributes = new JSONObject();
             attributes.put("razorpay_order_id", razorpayOrderId);
@@ -81,22 +104,34 @@ public class PaymentService {
                     com.razorpay.Utils.verifyPaymentSignature(attributes, razorpayKeySecret);
 
             if (!isSignatureValid) {
-                return false;
+                return CheckoutResult.failure();
             }
 
-            // 1) Update order to SUCCESS
+            // 1) Move the order from PENDING to SUCCESS. A retried or replayed
+            //    verification finds it already moved and changes nothing.
+            if (orderRepository.markPaid(razorpayOrderId, userId, LocalDateTime.now()) != 1) {
+                return alreadyPaid(razorpayOrderId, userId) ? CheckoutResult.success() : CheckoutResult.failure();
+            }
             Order order = orderRepository.findById(razorpayOrderId)
                     .orElseThrow(() -> new RuntimeException("Order not found"));
-            order.setStatus(OrderStatus.SUCCESS);
-            order.setUpdatedAt(LocalDateTime.now());
-            orderRepository.save(order);
 
-            // 2) Get cart items for user
+            // 2) Get cart items for user, including changes not yet written
+            cartStore.flush(userId);
             List<CartItem> cartItems = cartRepository.findCartItemsWithProductDetails(userId);
 
-            // 3) Save order items and update product stock
+            // 3) Keep the stock reserved for this order, taking or giving back
+            //    the difference if the cart changed. If a line cannot be
+            //    covered, nothing is committed.
+            Map<Integer, Integer> quantitiesByProduct = quantitiesByProduct(cartItems);
+            List<StockShortage> shortages = stockReservationService.commit(razorpayOrderId, quantitiesByProduct);
+            if (!shortages.isEmpty()) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return CheckoutResult.outOfStock(shortages);
+            }
+
+            // 4) Save order items in one batch
+            List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
             for (CartItem cartItem : cartItems) {
-                // create order item
                 OrderItem orderItem = new OrderItem();
                 orderItem.setOrder(order);
                 orderItem.setProductId(cartItem.getProduct().getProductId());
@@ -105,30 +140,37 @@ public class PaymentService {
                 orderItem.setTotalPrice(
                         cartItem.getProduct().getPrice()
                                 .multiply(BigDecimal.valueOf(cartItem.getQuantity())));
-                orderItemRepository.save(orderItem);
-
-                // ---- UPDATE STOCK HERE ----
-                Product product = cartItem.getProduct(); // already loaded
-                int currentStock = product.getStock();
-                int orderedQty = cartItem.getQuantity();
-
-                int newStock = currentStock - orderedQty;
-                if (newStock < 0) {
-                    // you can either throw or clamp to 0
-                    newStock = 0;
-                }
-                product.setStock(newStock);
-                productRepository.save(product);
+                orderItems.add(orderItem);
             }
+            orderItemRepository.batchInsert(orderItems);
 
-            // 4) Clear cart
+            // 5) Add the order to the sales rollups and per-product counters
+            salesReportService.recordSale(order, orderItems);
+
+            // 6) Clear cart
             cartRepository.deleteAllCartItemsByUserId(userId);
+            cartStore.clearAfterCommit(userId);
 
-            return true;
+            return CheckoutResult.success();
         } catch (Exception e) {
             e.printStackTrace();
-            return false;
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return CheckoutResult.failure();
+        }
+    }
+
+    private boolean alreadyPaid(String orderId, int userId) {
+        return orderRepository.findById(orderId)
+                .filter(order -> order.getUserId() == userId && order.getStatus() == OrderStatus.SUCCESS)
+                .isPresent();
+    }
+
+    private static Map<Integer, Integer> quantitiesByProduct(List<CartItem> cartItems) {
+        Map<Integer, Integer> quantitiesByProduct = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItems) {
+            quantitiesByProduct.merge(cartItem.getProduct().getProductId(), cartItem.getQuantity(), Integer::sum);
         }
+        return quantitiesByProduct;
     }
 
 //    @Transactional
@@ -1,8 +1,17 @@
 package com.example.demo.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import com.example.demo.cache.CatalogCache;
+import com.example.demo.cache.ProductSearchIndex;
 import com.example.demo.controllers.ProductController;
+import com.example.demo.dtos.ProductImageUrl;
 import com.example.demo.entities.Category;
 import com.example.demo.entities.Product;
 import com.example.demo.entities.ProductImage;
@@ -11,7 +20,10 @@ import com.example.demo.repositories.ProductImageRepository;
 import com.example.demo.repositories.ProductRepository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -28,14 +40,20 @@ public class ProductService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
     
 
     public List<Product> getProductsByCategory(String categoryName) {
         if (categoryName != null && !categoryName.isEmpty()) {
-            Optional<Category> categoryOpt = categoryRepository.findByCategoryName(categoryName);
+            Optional<Category> categoryOpt = catalogCache.getCategoryByName(categoryName);
             if (categoryOpt.isPresent()) {
                 Category category = categoryOpt.get();
-                return productRepository.findByCategory_CategoryId(category.getCategoryId());
+                return catalogCache.getProductsByCategory(category.getCategoryId());
             } else {
                 throw new RuntimeException("Category not found");
             }
@@ -44,6 +62,81 @@ public class ProductService {
         }
     }
 
+    /**
+     * Returns one offset page of products ordered by product ID.
+     *
+     * @param includeTotal whether to also count all matching products; the
+     *                     result is then a {@link org.springframework.data.domain.Page}
+     */
+    public Slice<Product> getProductsByCategory(String categoryName, int page, int size, boolean includeTotal) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("productId"));
+        Integer categoryId = resolveCategoryId(categoryName);
+        if (categoryId == null) {
+            return includeTotal ? productRepository.findAll(pageable) : productRepository.findSlice(pageable);
+        }
+        return includeTotal
+                ? productRepository.findPageByCategory_CategoryId(categoryId, pageable)
+                : productRepository.findSliceByCategory_CategoryId(categoryId, pageable);
+    }
+
+    /**
+     * Returns the products following {@code afterProductId} in product ID order.
+     * Unlike offset pages this costs the same no matter how deep the client has
+     * paged.
+     */
+    public Slice<Product> getProductsByCategoryAfter(String categoryName, Integer afterProductId, int size) {
+        Integer categoryId = resolveCategoryId(categoryName);
+        int after = afterProductId != null ? afterProductId : 0;
+        // Fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(size + 1);
+        List<Product> products = categoryId == null
+                ? productRepository.findByProductIdGreaterThanOrderByProductIdAsc(after, limit)
+                : productRepository.findByCategory_CategoryIdAndProductIdGreaterThanOrderByProductIdAsc(categoryId,
+                        after, limit);
+
+        boolean hasNext = products.size() > size;
+        List<Product> content = hasNext ? products.subList(0, size) : products;
+        return new SliceImpl<>(content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * Finds products whose name, category or description match the query,
+     * best match first. Words may be incomplete or slightly misspelled.
+     */
+    public List<Product> searchProducts(String query, int limit) {
+        List<Integer> productIds = productSearchIndex.search(query, limit);
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            productsById.put(product.getProductId(), product);
+        }
+        List<Product> products = new ArrayList<>(productIds.size());
+        for (Integer productId : productIds) {
+            Product product = productsById.get(productId);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Looks up the ID of the named category.
+     *
+     * @return the category ID, or null when no category name is given
+     * @throws RuntimeException if no category has that name
+     */
+    public Integer resolveCategoryId(String categoryName) {
+        if (categoryName == null || categoryName.isEmpty()) {
+            return null;
+        }
+        return catalogCache.getCategoryByName(categoryName)
+                .orElseThrow(() -> new RuntimeException("Category not found"))
+                .getCategoryId();
+    }
+
     public List<String> getProductImages(Integer productId) {
         List<ProductImage> productImages = productImageRepository.findByProduct_ProductId(productId);
         List<String> imageUrls = new ArrayList<>();
@@ -52,4 +145,20 @@ public class ProductService {
         }
         return imageUrls;
     }
+
+    /**
+     * Loads the image URLs of all given products with a single query.
+     *
+     * @return image URLs grouped by product ID; products without images are absent
+     */
+    public Map<Integer, List<String>> getProductImages(Collection<Integer> productIds) {
+        Map<Integer, List<String>> imagesByProduct = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return imagesByProduct;
+        }
+        for (ProductImageUrl image : productImageRepository.findImageUrlsByProductIds(productIds)) {
+            imagesByProduct.computeIfAbsent(image.productId(), id -> new ArrayList<>()).add(image.imageUrl());
+        }
+        return imagesByProduct;
+    }
 }
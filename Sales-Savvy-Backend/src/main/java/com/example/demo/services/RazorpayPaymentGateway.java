@@ -0,0 +1,23 @@
+package com.example.demo.services;
+
+import org.json.JSONObject;
+import org.springframework.stereotype.Component;
+
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+
+@Component
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private final RazorpayClient razorpayClient;
+
+    public RazorpayPaymentGateway(RazorpayClient razorpayClient) {
+        this.razorpayClient = razorpayClient;
+    }
+
+    @Override
+    public String createOrder(JSONObject orderRequest) throws RazorpayException {
+        com.razorpay.Order razorpayOrder = razorpayClient.orders.create(orderRequest);
+        return razorpayOrder.get("id");
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.cache.CatalogCache;
+import com.example.demo.dtos.SalesSummary;
+import com.example.demo.dtos.TopProduct;
+import com.example.demo.entities.DailySales;
+import com.example.demo.entities.MonthlySales;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.DailySalesRepository;
+import com.example.demo.repositories.MonthlySalesRepository;
+import com.example.demo.repositories.ProductDailySalesRepository;
+
+/**
+ * Revenue reports served from the sales_daily, sales_monthly and
+ * product_sales_daily rollups.
+ *
+ * Each verified payment adds its order to the rows of its creation day and
+ * month, and its lines to the day's row of each product, in the same
+ * transaction that marks it SUCCESS, so the rollups always agree with the
+ * orders table. A report reads at most a few hundred rollup rows however
+ * many orders there are; best-seller reports read one row per product sold
+ * on each day of their window.
+ */
+@Service
+public class SalesReportService {
+
+    public enum Ranking {
+        UNITS,
+        REVENUE;
+
+        public static Ranking from(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported ranking: " + name);
+            }
+        }
+    }
+
+    public static final int MAX_TOP_PRODUCTS = 100;
+
+    private final DailySalesRepository dailySalesRepository;
+    private final MonthlySalesRepository monthlySalesRepository;
+    private final ProductDailySalesRepository productDailySalesRepository;
+    private final CatalogCache catalogCache;
+
+    public SalesReportService(DailySalesRepository dailySalesRepository,
+                              MonthlySalesRepository monthlySalesRepository,
+                              ProductDailySalesRepository productDailySalesRepository,
+                              CatalogCache catalogCache) {
+        this.dailySalesRepository = dailySalesRepository;
+        this.monthlySalesRepository = monthlySalesRepository;
+        this.productDailySalesRepository = productDailySalesRepository;
+        this.catalogCache = catalogCache;
+    }
+
+    /**
+     * Counts an order that has just become SUCCESS, together with its lines.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSale(Order order, List<OrderItem> orderItems) {
+        LocalDate day = order.getCreatedAt().toLocalDate();
+        long itemsSold = 0;
+        for (OrderItem item : orderItems) {
+            itemsSold += item.getQuantity();
+        }
+        dailySalesRepository.addSale(day, itemsSold, order.getTotalAmount());
+        productDailySalesRepository.addSales(day, orderItems);
+    }
+
+    /**
+     * Returns the {@code limit} products that sold the most units, or earned
+     * the most revenue, between {@code from} and {@code to} (inclusive), best
+     * first. Ties go to the lower product ID.
+     *
+     * The window's rows are summed per product in the database and the best
+     * are picked with a heap of {@code limit} entries, so no sort covers every
+     * product sold.
+     */
+    public List<TopProduct> getTopProducts(LocalDate from, LocalDate to, Ranking ranking, int limit) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (limit < 1 || limit > MAX_TOP_PRODUCTS) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_TOP_PRODUCTS);
+        }
+        Comparator<ProductTotals> better = ranking == Ranking.UNITS
+                ? Comparator.comparingLong(ProductTotals::unitsSold)
+                : Comparator.comparing(ProductTotals::revenue);
+        Comparator<ProductTotals> order = better.thenComparing(
+                Comparator.comparingInt(ProductTotals::productId).reversed());
+
+        // Min-heap: the head is the weakest of the best seen so far
+        PriorityQueue<ProductTotals> best = new PriorityQueue<>(limit + 1, order);
+        productDailySalesRepository.forEachProductTotalBetween(from, to, (productId, unitsSold, revenue) -> {
+            ProductTotals candidate = new ProductTotals(productId, unitsSold, revenue);
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (order.compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        });
+
+        List<TopProduct> top = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ProductTotals product = best.poll();
+            String name = catalogCache.getProduct(product.productId()).map(Product::getName).orElse(null);
+            top.add(new TopProduct(product.productId(), name, product.unitsSold(), product.revenue()));
+        }
+        Collections.reverse(top);
+        return top;
+    }
+
+    public SalesSummary getDailySales(LocalDate date) {
+        return dailySalesRepository.findById(date)
+                .map(day -> summary(date.toString(), day))
+                .orElseGet(() -> SalesSummary.empty(date.toString()));
+    }
+
+    /**
+     * Returns the days between {@code from} and {@code to} (inclusive) that
+     * had sales, oldest first.
+     */
+    public List<SalesSummary> getDailySales(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        List<SalesSummary> days = new ArrayList<>();
+        for (DailySales day : dailySalesRepository.findBySalesDateBetweenOrderBySalesDate(from, to)) {
+            days.add(summary(day.getSalesDate().toString(), day));
+        }
+        return days;
+    }
+
+    public SalesSummary getMonthlySales(int year, int month) {
+        YearMonth yearMonth = YearMonth.of(year, month);
+        return monthlySalesRepository.findById(yearMonth.atDay(1))
+                .map(row -> summary(yearMonth.toString(), row))
+                .orElseGet(() -> SalesSummary.empty(yearMonth.toString()));
+    }
+
+    public SalesSummary getYearlySales(int year) {
+        return total(String.valueOf(year), monthlySalesRepository.findByMonthStartBetweenOrderByMonthStart(
+                LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 1)));
+    }
+
+    public SalesSummary getOverallSales() {
+        return total("overall", monthlySalesRepository.findAll());
+    }
+
+    @Transactional
+    public void rebuildRollups() {
+        dailySalesRepository.rebuildFromOrders();
+        productDailySalesRepository.rebuildFromOrders();
+    }
+
+    private static SalesSummary total(String period, List<MonthlySales> months) {
+        SalesSummary total = SalesSummary.empty(period);
+        for (MonthlySales month : months) {
+            total = total.plus(month.getOrderCount(), month.getItemsSold(), month.getRevenue());
+        }
+        return total;
+    }
+
+    private static SalesSummary summary(String period, DailySales day) {
+        return new SalesSummary(period, day.getOrderCount(), day.getItemsSold(), day.getRevenue());
+    }
+
+    private static SalesSummary summary(String period, MonthlySales month) {
+        return new SalesSummary(period, month.getOrderCount(), month.getItemsSold(), month.getRevenue());
+    }
+
+    private record ProductTotals(int productId, long unitsSold, BigDecimal revenue) {
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.cache.CatalogCache;
+import com.example.demo.dtos.StockShortage;
+import com.example.demo.entities.ReservationStatus;
+import com.example.demo.entities.StockReservation;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.StockReservationRepository;
+
+/**
+ * Holds stock for pending orders.
+ *
+ * Stock is taken from the product when the order is created, with a
+ * conditional decrement that never lets it go below zero, so concurrent
+ * checkouts of the last unit cannot both succeed. The reservation is kept
+ * when the payment is verified and given back by {@link #releaseExpired()}
+ * once it times out. Every reservation moves out of RESERVED with a
+ * conditional update, so it is committed or released exactly once even when
+ * verification and release race.
+ */
+@Service
+public class StockReservationService {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final CatalogCache catalogCache;
+    private final TransactionTemplate transactionTemplate;
+    private final long ttlSeconds;
+    private final int releaseBatchSize;
+
+    public StockReservationService(StockReservationRepository reservationRepository,
+                                   ProductRepository productRepository,
+                                   CatalogCache catalogCache,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${stock.reservation.ttl-seconds:900}") long ttlSeconds,
+                                   @Value("${stock.reservation.release-batch-size:500}") int releaseBatchSize) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.catalogCache = catalogCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlSeconds = ttlSeconds;
+        this.releaseBatchSize = releaseBatchSize;
+    }
+
+    /**
+     * Takes the stock for a pending order. Nothing is reserved when a line is
+     * short; the caller must then roll back its transaction.
+     *
+     * @return the lines that could not be reserved, empty on success
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<StockShortage> reserve(String orderId, Map<Integer, Integer> quantitiesByProduct) {
+        List<Integer> failed = productRepository.decrementStock(quantitiesByProduct);
+        if (!failed.isEmpty()) {
+            return shortages(failed, quantitiesByProduct, Map.of());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> reservations = new ArrayList<>(quantitiesByProduct.size());
+        quantitiesByProduct.forEach((productId, quantity) ->
+                reservations.add(new StockReservation(orderId, productId, quantity, now, now.plusSeconds(ttlSeconds))));
+        reservationRepository.saveAll(reservations);
+
+        catalogCache.invalidateProductsAfterCommit(quantitiesByProduct.keySet());
+        return List.of();
+    }
+
+    /**
+     * Keeps the order's reservations and settles the difference with the
+     * quantities actually bought: missing stock is taken, surplus is given
+     * back. Expired or unknown reservations count as nothing reserved.
+     *
+     * @return the lines that could not be covered, empty on success; the
+     *         caller must roll back its transaction when not empty
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<StockShortage> commit(String orderId, Map<Integer, Integer> quantitiesByProduct) {
+        Map<Integer, Integer> reserved = new HashMap<>();
+        for (StockReservation reservation : reservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.RESERVED)) {
+            if (reservationRepository.transition(reservation.getId(), ReservationStatus.RESERVED, ReservationStatus.COMMITTED) == 1) {
+                reserved.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            }
+        }
+
+        Set<Integer> productIds = new LinkedHashSet<>(quantitiesByProduct.keySet());
+        productIds.addAll(reserved.keySet());
+        Map<Integer, Integer> missing = new LinkedHashMap<>();
+        Map<Integer, Integer> surplus = new LinkedHashMap<>();
+        for (Integer productId : productIds) {
+            int delta = quantitiesByProduct.getOrDefault(productId, 0) - reserved.getOrDefault(productId, 0);
+            if (delta > 0) {
+                missing.put(productId, delta);
+            } else if (delta < 0) {
+                surplus.put(productId, -delta);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<Integer> failed = productRepository.decrementStock(missing);
+            if (!failed.isEmpty()) {
+                return shortages(failed, quantitiesByProduct, reserved);
+            }
+        }
+        if (!surplus.isEmpty()) {
+            productRepository.incrementStock(surplus);
+        }
+
+        catalogCache.invalidateProductsAfterCommit(productIds);
+        return List.of();
+    }
+
+    /**
+     * Gives back the stock of reservations whose order was not paid in time.
+     * Works in batches, each in its own transaction.
+     */
+    @Scheduled(fixedDelayString = "${stock.reservation.release-interval-ms:60000}")
+    public void releaseExpired() {
+        Integer found;
+        do {
+            found = transactionTemplate.execute(status -> releaseExpiredBatch());
+        } while (found != null && found == releaseBatchSize);
+    }
+
+    private int releaseExpiredBatch() {
+        List<StockReservation> expired = reservationRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAtAsc(
+                ReservationStatus.RESERVED, LocalDateTime.now(), Limit.of(releaseBatchSize));
+
+        Map<Integer, Integer> released = new LinkedHashMap<>();
+        for (StockReservation reservation : expired) {
+            if (reservationRepository.transition(reservation.getId(), ReservationStatus.RESERVED, ReservationStatus.RELEASED) == 1) {
+                released.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+            }
+        }
+        if (!released.isEmpty()) {
+            productRepository.incrementStock(released);
+            catalogCache.invalidateProductsAfterCommit(released.keySet());
+        }
+        return expired.size();
+    }
+
+    private List<StockShortage> shortages(List<Integer> failed, Map<Integer, Integer> requested,
+                                          Map<Integer, Integer> reserved) {
+        Map<Integer, Integer> stock = productRepository.findStockByIds(failed);
+        return failed.stream()
+                .map(id -> new StockShortage(id, requested.getOrDefault(id, 0),
+                        stock.getOrDefault(id, 0) + reserved.getOrDefault(id, 0)))
+                .toList();
+    }
+}
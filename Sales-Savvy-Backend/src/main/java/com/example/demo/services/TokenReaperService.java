@@ -0,0 +1,125 @@
+package com.example.demo.services;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.cache.VerifiedTokenCache;
+import com.example.demo.entities.JWTToken;
+import com.example.demo.repositories.JWTTokenRepository;
+
+/**
+ * Keeps the jwt_tokens table small and its lookup column filled.
+ *
+ * Tokens are otherwise only deleted on logout or the next login, so expired
+ * ones would pile up for every user who simply stops coming back.
+ * {@link #reapExpired()} deletes them in batches through the expires_at
+ * index, each batch in its own short transaction so logins and token checks
+ * are never held up behind one large delete.
+ *
+ * Rows written before the token_hash column existed are hashed once at
+ * startup; until then they are not found by the hashed lookup.
+ */
+@Service
+public class TokenReaperService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenReaperService.class);
+
+    private final JWTTokenRepository jwtTokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private final LongAdder reapRuns = new LongAdder();
+    private final LongAdder reaped = new LongAdder();
+    private final LongAdder reapNanos = new LongAdder();
+    private final AtomicLong lastReaped = new AtomicLong();
+    private final AtomicLong lastReapMillis = new AtomicLong();
+    private final LongAdder backfilled = new LongAdder();
+
+    public TokenReaperService(JWTTokenRepository jwtTokenRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${auth.token-reaper.batch-size:1000}") int batchSize) {
+        this.jwtTokenRepository = jwtTokenRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Deletes every token that has expired, one batch at a time.
+     *
+     * @return the number of tokens deleted
+     */
+    @Scheduled(fixedDelayString = "${auth.token-reaper.interval-ms:300000}")
+    public int reapExpired() {
+        long started = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now();
+        int total = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> {
+                List<Integer> ids = jwtTokenRepository.findIdsExpiredBefore(cutoff, Limit.of(batchSize));
+                return ids.isEmpty() ? 0 : jwtTokenRepository.deleteByTokenIds(ids);
+            });
+            total += deleted != null ? deleted : 0;
+        } while (deleted != null && deleted == batchSize);
+
+        long nanos = System.nanoTime() - started;
+        reapRuns.increment();
+        reaped.add(total);
+        reapNanos.add(nanos);
+        lastReaped.set(total);
+        lastReapMillis.set(nanos / 1_000_000);
+        if (total > 0) {
+            log.info("Deleted {} expired tokens in {} ms", total, nanos / 1_000_000);
+        }
+        return total;
+    }
+
+    /**
+     * Fills token_hash for rows saved before the column was added.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTokenHashes() {
+        Integer updated;
+        do {
+            updated = transactionTemplate.execute(status -> {
+                List<JWTToken> tokens = jwtTokenRepository.findByTokenHashIsNull(Limit.of(batchSize));
+                for (JWTToken token : tokens) {
+                    token.setTokenHash(VerifiedTokenCache.hash(token.getToken()));
+                }
+                return tokens.size();
+            });
+            backfilled.add(updated != null ? updated : 0);
+        } while (updated != null && updated == batchSize);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tokens", jwtTokenRepository.count());
+        stats.put("expired_pending", jwtTokenRepository.countByExpiresAtBefore(LocalDateTime.now()));
+        long runs = reapRuns.sum();
+        long reapedCount = reaped.sum();
+        long nanos = reapNanos.sum();
+        stats.put("reap_runs", runs);
+        stats.put("reaped", reapedCount);
+        stats.put("last_reaped", lastReaped.get());
+        stats.put("last_reap_ms", lastReapMillis.get());
+        stats.put("reaped_per_second", nanos == 0 ? 0 : reapedCount * 1_000_000_000L / nanos);
+        stats.put("backfilled", backfilled.sum());
+        return stats;
+    }
+}
@@ -3,20 +3,29 @@ package com.example.demo.services;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.example.demo.cache.PrincipalCache;
+import com.example.demo.entities.Role;
 import com.example.demo.entities.User;
 import com.example.demo.repositories.UserRepository;
 
+import java.time.LocalDateTime;
+
 @Service
 public class UserService {
 
     private final UserRepository userRepository;
     private final BCryptPasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final AuthService authService;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PrincipalCache principalCache, AuthService authService) {
         this.userRepository = userRepository;
         this.passwordEncoder = new BCryptPasswordEncoder();
+        this.principalCache = principalCache;
+        this.authService = authService;
     }
 
     public User registerUser(User user) {
@@ -33,6 +42,24 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
 
         // Save the user
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        principalCache.put(savedUser);
+        return savedUser;
+    }
+
+    @Transactional
+    public User updateRole(int userId, Role role) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
+
+        user.setRole(role);
+        user.setUpdatedAt(LocalDateTime.now());
+        User savedUser = userRepository.save(user);
+        principalCache.putAfterCommit(savedUser);
+
+        // Issued tokens still carry the old "role" claim, so revoke them; the
+        // cached tokens are evicted once the deletes have committed
+        authService.logout(savedUser);
+        return savedUser;
     }
 }
@@ -0,0 +1,139 @@
+package com.example.demo;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.dtos.CheckoutResult;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.OrderStatus;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.Role;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.OrderItemRepository;
+import com.example.demo.repositories.OrderRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.services.PaymentService;
+
+/**
+ * Seed data and signed payment verification shared by the tests. It is
+ * picked up by component scanning, so tests autowire it like any other bean
+ * and every test keeps using the one cached application context.
+ */
+@Component
+public class TestFixtures {
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Value("${razorpay.key_secret}")
+	private String razorpayKeySecret;
+
+	// A product priced 10.00 in a category of its own
+	public Product saveProduct(String name, int stock) {
+		Category category = categoryRepository.save(new Category(name + "-category"));
+		return saveProduct(name, category, "10.00", stock);
+	}
+
+	public Product saveProduct(String name, Category category, String price, int stock) {
+		return saveProduct(name, "description", category, price, stock);
+	}
+
+	public Product saveProduct(String name, String description, Category category, String price, int stock) {
+		return productRepository.save(new Product(name, description, new BigDecimal(price), stock, category,
+				LocalDateTime.now(), LocalDateTime.now()));
+	}
+
+	public User saveUser(String username) {
+		return userRepository.save(new User(username, username + "@example.com", "password", Role.CUSTOMER,
+				LocalDateTime.now(), LocalDateTime.now()));
+	}
+
+	// A pending order created now, as PaymentService.createOrder leaves it
+	public Order savePendingOrder(String orderId, User user, String totalAmount) {
+		return saveOrder(orderId, user.getUserId(), OrderStatus.PENDING, totalAmount, LocalDateTime.now());
+	}
+
+	public Order saveOrder(String orderId, int userId, OrderStatus status, String totalAmount, LocalDateTime createdAt) {
+		Order order = new Order();
+		order.setOrderId(orderId);
+		order.setUserId(userId);
+		order.setTotalAmount(new BigDecimal(totalAmount));
+		order.setStatus(status);
+		order.setCreatedAt(createdAt);
+		return orderRepository.saveAndFlush(order);
+	}
+
+	public OrderItem saveOrderItem(Order order, Product product, int quantity) {
+		return orderItemRepository.save(orderItem(order, product.getProductId(), quantity, product.getPrice()));
+	}
+
+	public static OrderItem orderItem(Order order, int productId, int quantity, BigDecimal pricePerUnit) {
+		OrderItem item = new OrderItem();
+		item.setOrder(order);
+		item.setProductId(productId);
+		item.setQuantity(quantity);
+		item.setPricePerUnit(pricePerUnit);
+		item.setTotalPrice(pricePerUnit.multiply(BigDecimal.valueOf(quantity)));
+		return item;
+	}
+
+	/**
+	 * Verifies the payment with the signature Razorpay would send, an HMAC of
+	 * {@code orderId|paymentId} under the configured key secret.
+	 */
+	public CheckoutResult verify(String orderId, String paymentId, User user) {
+		return paymentService.verifyPayment(orderId, paymentId, sign(orderId + "|" + paymentId), user.getUserId());
+	}
+
+	// A request as AuthenticationFilter leaves it for the controllers
+	public static MockHttpServletRequest authenticatedRequest(int userId, String username) {
+		User user = new User();
+		user.setUserId(userId);
+		user.setUsername(username);
+		user.setRole(Role.CUSTOMER);
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute("authenticatedUser", user);
+		return request;
+	}
+
+	private String sign(String payload) {
+		try {
+			Mac mac = Mac.getInstance("HmacSHA256");
+			mac.init(new SecretKeySpec(razorpayKeySecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+			return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
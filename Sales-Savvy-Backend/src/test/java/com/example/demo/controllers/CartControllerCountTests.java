@@ -0,0 +1,119 @@
+package com.example.demo.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.cache.CartStore;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CartRepository;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.services.CartService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartControllerCountTests {
+
+	@Autowired
+	private CartController cartController;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private CartStore cartStore;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@AfterEach
+	void cleanUp() {
+		cartStore.flushDirty();
+		cartRepository.deleteAll();
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void countIsServedFromMemoryAndFollowsChanges() {
+		Product product = fixtures.saveProduct("badge", 100);
+		User user = fixtures.saveUser("badge-user");
+		cartService.addToCart(user.getUserId(), product.getProductId(), 2);
+		assertThat(count(user, null).getBody()).isEqualTo(2);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		cartService.addToCart(user.getUserId(), product.getProductId(), 3);
+		ResponseEntity<Integer> response = count(user, null);
+
+		assertThat(response.getBody()).isEqualTo(5);
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void unchangedCountIsNotModified() {
+		Product product = fixtures.saveProduct("etag", 100);
+		User user = fixtures.saveUser("etag-user");
+		cartService.addToCart(user.getUserId(), product.getProductId(), 1);
+
+		ResponseEntity<Integer> first = count(user, null);
+		String eTag = first.getHeaders().getETag();
+		assertThat(eTag).isNotNull();
+
+		MockHttpServletResponse notModified = new MockHttpServletResponse();
+		assertThat(cartController.getCartItemCount(user.getUsername(),
+				webRequest(eTag, notModified))).isNull();
+		assertThat(notModified.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+
+		cartService.addToCart(user.getUserId(), product.getProductId(), 1);
+		ResponseEntity<Integer> changed = count(user, eTag);
+		assertThat(changed.getBody()).isEqualTo(2);
+		assertThat(changed.getHeaders().getETag()).isNotEqualTo(eTag);
+	}
+
+	private ResponseEntity<Integer> count(User user, String ifNoneMatch) {
+		return cartController.getCartItemCount(user.getUsername(),
+				webRequest(ifNoneMatch, new MockHttpServletResponse()));
+	}
+
+	private ServletWebRequest webRequest(String ifNoneMatch, MockHttpServletResponse response) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart/items/count");
+		if (ifNoneMatch != null) {
+			request.addHeader("If-None-Match", ifNoneMatch);
+		}
+		return new ServletWebRequest(request, response);
+	}
+}
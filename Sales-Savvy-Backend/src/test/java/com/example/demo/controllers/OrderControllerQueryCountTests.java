@@ -0,0 +1,134 @@
+package com.example.demo.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.dtos.OrderHistoryLine;
+import com.example.demo.dtos.OrderHistoryView;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderStatus;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.ProductImage;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductImageRepository;
+
+import jakarta.persistence.EntityManager;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OrderControllerQueryCountTests {
+
+	private static final int LIGHT_BUYER = 11;
+	private static final int HEAVY_BUYER = 12;
+
+	@Autowired
+	private OrderController orderController;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductImageRepository productImageRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	void historyQueryCountDoesNotGrowWithOrderCount() {
+		List<Product> products = seedProducts(3);
+		seedOrders(LIGHT_BUYER, 2, products);
+		seedOrders(HEAVY_BUYER, 40, products);
+
+		// order ids of the page + lines of those orders
+		assertThat(countQueries(LIGHT_BUYER, 0, 10)).isEqualTo(2);
+		assertThat(countQueries(HEAVY_BUYER, 0, 10)).isEqualTo(2);
+		assertThat(countQueries(HEAVY_BUYER, 3, 10)).isEqualTo(2);
+		// unpaged: lines only
+		assertThat(countQueries(HEAVY_BUYER, null, null)).isEqualTo(1);
+	}
+
+	@Test
+	void pagesHoldWholeOrdersNewestFirst() {
+		List<Product> products = seedProducts(3);
+		seedOrders(HEAVY_BUYER, 5, products);
+		entityManager.flush();
+		entityManager.clear();
+
+		List<String> orderIds = new ArrayList<>();
+		int page = 0;
+		OrderHistoryView view;
+		do {
+			view = history(HEAVY_BUYER, page++, 2);
+			Set<String> pageOrders = new LinkedHashSet<>();
+			for (OrderHistoryLine line : view.products()) {
+				pageOrders.add(line.orderId());
+			}
+			assertThat(view.products()).hasSize(pageOrders.size() * products.size());
+			orderIds.addAll(pageOrders);
+		} while (view.hasNext());
+
+		assertThat(page).isEqualTo(3);
+		assertThat(orderIds).containsExactly("order-12-4", "order-12-3", "order-12-2", "order-12-1", "order-12-0");
+	}
+
+	private long countQueries(int userId, Integer page, Integer size) {
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		OrderHistoryView view = history(userId, page, size);
+		long queries = statistics.getPrepareStatementCount();
+
+		assertThat(view.products()).isNotEmpty();
+		assertThat(view.products()).allSatisfy(line -> assertThat(line.imageUrl()).isNotNull());
+		return queries;
+	}
+
+	private OrderHistoryView history(int userId, Integer page, Integer size) {
+		return (OrderHistoryView) orderController
+				.getOrdersForUser(TestFixtures.authenticatedRequest(userId, "buyer-" + userId), page, size).getBody();
+	}
+
+	private List<Product> seedProducts(int count) {
+		Category category = categoryRepository.save(new Category("history"));
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Product product = fixtures.saveProduct("history-" + i, category, "4.00", 10);
+			productImageRepository.save(new ProductImage(product, "https://img/history/" + i + ".png"));
+			products.add(product);
+		}
+		return products;
+	}
+
+	// Order i of a user is created i hours after the first, with one line per product
+	private void seedOrders(int userId, int count, List<Product> products) {
+		LocalDateTime first = LocalDateTime.of(2024, 1, 1, 8, 0);
+		for (int i = 0; i < count; i++) {
+			Order order = fixtures.saveOrder("order-" + userId + "-" + i, userId, OrderStatus.SUCCESS, "12.00",
+					first.plusHours(i));
+			for (Product product : products) {
+				fixtures.saveOrderItem(order, product, 1);
+			}
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.demo.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderStatus;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.ProductImage;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductImageRepository;
+
+import jakarta.persistence.EntityManager;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OrderControllerStreamTests {
+
+	private static final int USER_ID = 7;
+
+	@Autowired
+	private OrderController orderController;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductImageRepository productImageRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void streamedHistoryMatchesTypedHistory() throws Exception {
+		Category category = categoryRepository.save(new Category("orders"));
+		Product withImage = fixtures.saveProduct("with-image", category, "12.50", 10);
+		productImageRepository.save(new ProductImage(withImage, "https://img/first.png"));
+		productImageRepository.save(new ProductImage(withImage, "https://img/second.png"));
+		Product withoutImage = fixtures.saveProduct("without-image", category, "12.50", 10);
+
+		saveOrder("order_old", OrderStatus.SUCCESS, LocalDateTime.now().minusDays(1), withImage, withoutImage);
+		saveOrder("order_new", OrderStatus.SUCCESS, LocalDateTime.now(), withoutImage);
+		saveOrder("order_failed", OrderStatus.FAILED, LocalDateTime.now(), withImage);
+		entityManager.flush();
+		entityManager.clear();
+
+		MockHttpServletRequest request = TestFixtures.authenticatedRequest(USER_ID, "buyer");
+		Object typed = orderController.getOrdersForUser(request, null, null).getBody();
+		StreamingResponseBody streamed = (StreamingResponseBody) orderController.streamOrdersForUser(request).getBody();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		streamed.writeTo(out);
+
+		JsonNode streamedJson = objectMapper.readTree(out.toByteArray());
+		assertThat(streamedJson.get("products")).hasSize(3);
+		assertThat(streamedJson.get("products").get(0).get("order_id").asString()).isEqualTo("order_new");
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(typed));
+	}
+
+	private void saveOrder(String orderId, OrderStatus status, LocalDateTime createdAt, Product... products) {
+		Order order = fixtures.saveOrder(orderId, USER_ID, status, "25.00", createdAt);
+		for (Product product : products) {
+			fixtures.saveOrderItem(order, product, 2);
+		}
+	}
+}
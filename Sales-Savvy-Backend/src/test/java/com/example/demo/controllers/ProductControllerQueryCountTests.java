@@ -0,0 +1,163 @@
+package com.example.demo.controllers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.dtos.KeysetPageInfo;
+import com.example.demo.dtos.ProductListView;
+import com.example.demo.dtos.ProductView;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.ProductImage;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductImageRepository;
+
+import jakarta.persistence.EntityManager;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ProductControllerQueryCountTests {
+
+	private final MockHttpServletRequest request = TestFixtures.authenticatedRequest(1, "customer");
+
+	@Autowired
+	private ProductController productController;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductImageRepository productImageRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void listingQueryCountDoesNotGrowWithCategorySize() {
+		seedCategory("small", 3);
+		seedCategory("large", 60);
+
+		long smallQueries = countQueries("small", 3);
+		long largeQueries = countQueries("large", 60);
+
+		// category lookup + products (with category) + images
+		assertThat(smallQueries).isEqualTo(3);
+		assertThat(largeQueries).isEqualTo(smallQueries);
+	}
+
+	@Test
+	void unfilteredListingUsesTwoQueries() {
+		seedCategory("first", 5);
+		seedCategory("second", 5);
+
+		// products (with categories) + images
+		assertThat(countQueries(null, 10)).isEqualTo(2);
+	}
+
+	@Test
+	void keysetPagesWalkTheWholeCategory() {
+		seedCategory("paged", 25);
+		entityManager.flush();
+		entityManager.clear();
+
+		List<Integer> seen = new ArrayList<>();
+		Integer cursor = 0;
+		while (cursor != null) {
+			ProductListView body = (ProductListView) productController.getProducts("paged", null, 10, cursor, false, request)
+					.getBody();
+			for (ProductView product : body.products()) {
+				seen.add(product.productId());
+			}
+			cursor = ((KeysetPageInfo) body.page()).nextCursor();
+		}
+
+		assertThat(seen).hasSize(25).isSorted().doesNotHaveDuplicates();
+	}
+
+	@Test
+	void pageJsonKeepsNullCursorAndOmitsAbsentFields() {
+		seedCategory("last", 3);
+		entityManager.flush();
+		entityManager.clear();
+
+		JsonNode page = objectMapper.valueToTree(
+				productController.getProducts("last", null, 10, 0, false, request).getBody()).get("page");
+
+		assertThat(page.has("next_cursor")).isTrue();
+		assertThat(page.get("next_cursor").isNull()).isTrue();
+		assertThat(page.has("number")).isFalse();
+		assertThat(page.has("total_elements")).isFalse();
+
+		JsonNode offsetPage = objectMapper.valueToTree(
+				productController.getProducts("last", 0, 10, null, false, request).getBody()).get("page");
+
+		assertThat(offsetPage.get("number").asInt()).isZero();
+		assertThat(offsetPage.has("next_cursor")).isFalse();
+		assertThat(offsetPage.has("total_elements")).isFalse();
+	}
+
+	@Test
+	void streamedListingMatchesTypedListing() throws Exception {
+		seedCategory("streamed", 4);
+		entityManager.flush();
+		entityManager.clear();
+
+		Object typed = productController.getProducts("streamed", null, null, null, false, request).getBody();
+		StreamingResponseBody streamed = (StreamingResponseBody) productController.streamProducts("streamed", request)
+				.getBody();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		streamed.writeTo(out);
+
+		assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(objectMapper.writeValueAsString(typed));
+	}
+
+	private long countQueries(String category, int expectedProducts) {
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		ResponseEntity<?> response = productController.getProducts(category, null, null, null, false, request);
+
+		long queries = statistics.getPrepareStatementCount();
+		List<ProductView> products = ((ProductListView) response.getBody()).products();
+		assertThat(products).hasSize(expectedProducts);
+		assertThat(products).allSatisfy(p -> assertThat(p.images()).hasSize(2));
+		return queries;
+	}
+
+	private void seedCategory(String name, int productCount) {
+		Category category = categoryRepository.save(new Category(name));
+		for (int i = 0; i < productCount; i++) {
+			Product product = fixtures.saveProduct(name + "-" + i, category, "9.99", 10);
+			productImageRepository.save(new ProductImage(product, "https://img/" + name + "/" + i + "/1.png"));
+			productImageRepository.save(new ProductImage(product, "https://img/" + name + "/" + i + "/2.png"));
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.example.demo.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.cache.CartStore;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.services.CartService;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartRepositoryUpsertTests {
+
+	private static final int THREADS = 50;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private CartStore cartStore;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@AfterEach
+	void cleanUp() {
+		cartStore.flushDirty();
+		cartRepository.deleteAll();
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentUpsertsKeepOneRowWithTheExactQuantity() throws Exception {
+		Product product = fixtures.saveProduct("upserted", 100);
+		User user = fixtures.saveUser("racer");
+
+		runConcurrently(() -> {
+			cartRepository.addQuantities(user.getUserId(), Map.of(product.getProductId(), 1));
+			return null;
+		});
+
+		assertThat(cartRepository.count()).isEqualTo(1);
+		assertThat(cartRepository.countTotalItems(user.getUserId())).isEqualTo(THREADS);
+	}
+
+	@Test
+	void concurrentAddsThroughTheServiceAreExact() throws Exception {
+		Product product = fixtures.saveProduct("clicked", 100);
+		User user = fixtures.saveUser("double-clicker");
+
+		runConcurrently(() -> {
+			cartService.addToCart(user.getUserId(), product.getProductId(), 1);
+			return null;
+		});
+		cartStore.flushDirty();
+
+		assertThat(cartRepository.count()).isEqualTo(1);
+		assertThat(cartRepository.countTotalItems(user.getUserId())).isEqualTo(THREADS);
+	}
+
+	@Test
+	void duplicateRowsAreRejected() {
+		Product product = fixtures.saveProduct("unique", 100);
+		User user = fixtures.saveUser("duplicator");
+		cartRepository.saveAndFlush(new CartItem(user, product, 1));
+
+		assertThatThrownBy(() -> cartRepository.saveAndFlush(new CartItem(user, product, 1)))
+				.isInstanceOf(DataIntegrityViolationException.class);
+	}
+
+	private void runConcurrently(Callable<Void> task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Void>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				results.add(executor.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+			for (Future<Void> result : results) {
+				result.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
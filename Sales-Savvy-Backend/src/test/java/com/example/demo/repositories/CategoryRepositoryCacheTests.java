@@ -0,0 +1,67 @@
+package com.example.demo.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.entities.Category;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CategoryRepositoryCacheTests {
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	private Category category;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		category = categoryRepository.save(new Category("cached-category"));
+	}
+
+	@AfterEach
+	void tearDown() {
+		categoryRepository.delete(category);
+	}
+
+	@Test
+	void repeatedLookupByNameIssuesNoSql() {
+		// First lookup populates the query cache and the entity region
+		assertThat(categoryRepository.findByCategoryName("cached-category")).isPresent();
+
+		statistics.clear();
+		assertThat(categoryRepository.findByCategoryName("cached-category"))
+				.get().extracting(Category::getCategoryId).isEqualTo(category.getCategoryId());
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	void repeatedLookupByIdIssuesNoSql() {
+		entityManagerFactory.getCache().evictAll();
+		assertThat(categoryRepository.findById(category.getCategoryId())).isPresent();
+
+		statistics.clear();
+		assertThat(categoryRepository.findById(category.getCategoryId())).isPresent();
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,84 @@
+package com.example.demo.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.entities.OrderStatus;
+
+/**
+ * Runs EXPLAIN (H2 in MySQL mode) on the SQL the report queries generate and
+ * checks that the (status, created_at) index bounds both columns.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OrderRepositoryQueryPlanTests {
+
+	private static final String INDEX = "idx_orders_status_created_at";
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void dateReportsSeekTheStatusCreatedAtIndex() {
+		orderRepository.findSuccessfulOrdersByYear(2024);
+		assertSeeksCreatedAtRange(RecordingStatementInspector.lastSql());
+
+		orderRepository.findSuccessfulOrdersByMonthAndYear(2, 2024);
+		assertSeeksCreatedAtRange(RecordingStatementInspector.lastSql());
+
+		orderRepository.findSuccessfulOrdersByDate(LocalDate.of(2024, 2, 29));
+		assertSeeksCreatedAtRange(RecordingStatementInspector.lastSql());
+
+		LocalDateTime from = LocalDate.of(2024, 1, 1).atStartOfDay();
+		orderRepository.sumTotalAmountByStatusAndCreatedAtRange(OrderStatus.SUCCESS, from, from.plusYears(1));
+		assertSeeksCreatedAtRange(RecordingStatementInspector.lastSql());
+	}
+
+	@Test
+	void overallBusinessUsesTheStatusPrefix() {
+		orderRepository.calculateOverallBusiness();
+
+		assertThat(indexCondition(explain(RecordingStatementInspector.lastSql()))).contains("status =");
+	}
+
+	@Test
+	void functionOnCreatedAtCannotBoundTheIndex() {
+		// The form the report queries used before; only the status narrows the index scan
+		String condition = indexCondition(explain(
+				"SELECT * FROM orders o WHERE YEAR(o.created_at) = 2024 AND o.status = 'SUCCESS'"));
+
+		assertThat(condition).contains("status =").doesNotContain("created_at");
+	}
+
+	private void assertSeeksCreatedAtRange(String sql) {
+		LocalDateTime from = LocalDate.of(2024, 1, 1).atStartOfDay();
+		String condition = indexCondition(explain(sql, OrderStatus.SUCCESS.name(), from, from.plusYears(1)));
+
+		assertThat(condition).contains("status =", "created_at >=", "created_at <");
+	}
+
+	private String explain(String sql, Object... args) {
+		return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+	}
+
+	// H2 prints the chosen index and its search condition as /* index: condition */
+	private static String indexCondition(String plan) {
+		String marker = "/* public." + INDEX + ":";
+		int start = plan.indexOf(marker);
+		assertThat(start).as("plan uses %s:%n%s", INDEX, plan).isNotNegative();
+		return plan.substring(start + marker.length(), plan.indexOf("*/", start));
+	}
+}
@@ -0,0 +1,175 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.cache.CartStore;
+import com.example.demo.dtos.CartLineView;
+import com.example.demo.dtos.CartOperation;
+import com.example.demo.dtos.CartView;
+import com.example.demo.dtos.CheckoutResult;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CartRepository;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.OrderItemRepository;
+import com.example.demo.repositories.OrderRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceWriteBehindTests {
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private CartStore cartStore;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@AfterEach
+	void cleanUp() {
+		cartStore.flushDirty();
+		orderItemRepository.deleteAll();
+		orderRepository.deleteAll();
+		cartRepository.deleteAll();
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void repeatedAddsAreCoalescedIntoOneRow() {
+		Product product = fixtures.saveProduct("coalesced", 100);
+		User user = fixtures.saveUser("clicker");
+
+		for (int i = 0; i < 10; i++) {
+			cartService.addToCart(user.getUserId(), product.getProductId(), 1);
+		}
+		assertThat(cartRepository.count()).isZero();
+
+		cartStore.flushDirty();
+
+		assertThat(cartRepository.count()).isEqualTo(1);
+		assertThat(cartRepository.countTotalItems(user.getUserId())).isEqualTo(10);
+	}
+
+	@Test
+	void readsSeeChangesNotYetFlushed() {
+		Product kept = fixtures.saveProduct("kept", 100);
+		Product dropped = fixtures.saveProduct("dropped", 100);
+		User user = fixtures.saveUser("reader");
+		cartService.addToCart(user.getUserId(), kept.getProductId(), 2);
+		cartService.addToCart(user.getUserId(), dropped.getProductId(), 1);
+		cartStore.flushDirty();
+
+		cartService.updateCartItemQuantity(user.getUserId(), kept.getProductId(), 5);
+		cartService.deleteCartItem(user.getUserId(), dropped.getProductId());
+
+		assertThat(cartService.getCartItems(user).cart().products())
+				.singleElement()
+				.satisfies(line -> {
+					assertThat(line.productId()).isEqualTo(kept.getProductId());
+					assertThat(line.quantity()).isEqualTo(5);
+				});
+		assertThat(cartService.getCartItemCount(user.getUserId())).isEqualTo(5);
+	}
+
+	@Test
+	void bulkOperationsAreAppliedTogetherAndReturnTheCart() {
+		Product first = fixtures.saveProduct("bulk-first", 100);
+		Product second = fixtures.saveProduct("bulk-second", 100);
+		Product third = fixtures.saveProduct("bulk-third", 100);
+		User user = fixtures.saveUser("syncer");
+		cartService.addToCart(user.getUserId(), third.getProductId(), 1);
+		cartStore.flushDirty();
+
+		CartView cart = cartService.applyBulk(user, List.of(
+				new CartOperation("add", first.getProductId(), 2),
+				new CartOperation("add", first.getProductId(), null),
+				new CartOperation("set", second.getProductId(), 4),
+				new CartOperation("remove", third.getProductId(), null)));
+
+		assertThat(cart.cart().products())
+				.extracting(CartLineView::productId, CartLineView::quantity)
+				.containsExactlyInAnyOrder(tuple(first.getProductId(), 3), tuple(second.getProductId(), 4));
+		assertThat(cartRepository.countTotalItems(user.getUserId())).isEqualTo(7);
+	}
+
+	@Test
+	void invalidBulkRequestChangesNothing() {
+		Product product = fixtures.saveProduct("bulk-valid", 100);
+		User user = fixtures.saveUser("careless");
+
+		assertThatThrownBy(() -> cartService.applyBulk(user, List.of(
+				new CartOperation("add", product.getProductId(), 1),
+				new CartOperation("add", -1, 1))))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> cartService.applyBulk(user, List.of(
+				new CartOperation("replace", product.getProductId(), 1))))
+				.isInstanceOf(IllegalArgumentException.class);
+
+		assertThat(cartService.getCartItemCount(user.getUserId())).isZero();
+	}
+
+	@Test
+	void checkoutSeesTheLatestCart() {
+		Product product = fixtures.saveProduct("checkout", 10);
+		User user = fixtures.saveUser("payer");
+		cartService.addToCart(user.getUserId(), product.getProductId(), 1);
+		cartStore.flushDirty();
+		cartService.addToCart(user.getUserId(), product.getProductId(), 2);
+		fixtures.savePendingOrder("order_latest", user, "30.00");
+
+		CheckoutResult result = fixtures.verify("order_latest", "pay_latest", user);
+
+		assertThat(result.verified()).isTrue();
+		assertThat(orderItemRepository.findAll()).singleElement()
+				.satisfies(item -> assertThat(item.getQuantity()).isEqualTo(3));
+		assertThat(cartService.getCartItemCount(user.getUserId())).isZero();
+	}
+
+	@Test
+	void rolledBackCheckoutKeepsUnflushedChanges() {
+		Product product = fixtures.saveProduct("short", 2);
+		User user = fixtures.saveUser("unlucky");
+		cartService.addToCart(user.getUserId(), product.getProductId(), 5);
+		fixtures.savePendingOrder("order_rolled_back", user, "30.00");
+
+		CheckoutResult result = fixtures.verify("order_rolled_back", "pay_rolled_back", user);
+
+		assertThat(result.shortages()).hasSize(1);
+		assertThat(cartService.getCartItemCount(user.getUserId())).isEqualTo(5);
+	}
+}
@@ -0,0 +1,113 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.ProductImage;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductImageRepository;
+
+import jakarta.persistence.EntityManager;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class CatalogExportServiceTests {
+
+	@Autowired
+	private CatalogExportService catalogExportService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductImageRepository productImageRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void ndjsonWritesOneLinePerProductAndLoadsImagesPerChunk() {
+		Category category = categoryRepository.save(new Category("export-ndjson"));
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			ids.add(saveProduct("item-" + i, "plain", category, 2).getProductId());
+		}
+		saveProduct("other", "plain", categoryRepository.save(new Category("export-other")), 1);
+
+		entityManager.flush();
+		entityManager.clear();
+		Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		String output = export(category.getCategoryId(), ExportFormat.NDJSON);
+
+		// one cursor query + one image query per chunk of four
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+
+		String[] lines = output.split("\n");
+		assertThat(lines).hasSize(10);
+		assertThat(output).endsWith("\n");
+		List<Integer> exported = new ArrayList<>();
+		for (String line : lines) {
+			JsonNode product = objectMapper.readTree(line);
+			exported.add(product.get("product_id").asInt());
+			assertThat(product.get("category").asString()).isEqualTo("export-ndjson");
+			assertThat(product.get("images")).hasSize(2);
+		}
+		assertThat(exported).isEqualTo(ids);
+	}
+
+	@Test
+	void csvQuotesFieldsThatNeedIt() {
+		Category category = categoryRepository.save(new Category("export-csv"));
+		Product quoted = saveProduct("Mug, \"large\"", "line one\nline two", category, 2);
+		Product plain = saveProduct("Plate", "plain", category, 0);
+
+		String output = export(category.getCategoryId(), ExportFormat.CSV);
+
+		assertThat(output.split("\r\n")).containsExactly(
+				"product_id,name,description,price,stock,category,images",
+				quoted.getProductId() + ",\"Mug, \"\"large\"\"\",\"line one\nline two\",9.99,10,export-csv,"
+						+ "https://img/" + quoted.getProductId() + "/0.png https://img/" + quoted.getProductId()
+						+ "/1.png",
+				plain.getProductId() + ",Plate,plain,9.99,10,export-csv,");
+	}
+
+	private String export(Integer categoryId, ExportFormat format) {
+		entityManager.flush();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		catalogExportService.export(categoryId, format, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private Product saveProduct(String name, String description, Category category, int images) {
+		Product product = fixtures.saveProduct(name, description, category, "9.99", 10);
+		for (int i = 0; i < images; i++) {
+			productImageRepository.save(new ProductImage(product, "https://img/" + product.getProductId() + "/" + i + ".png"));
+		}
+		return product;
+	}
+}
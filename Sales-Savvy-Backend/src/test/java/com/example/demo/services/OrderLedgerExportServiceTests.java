@@ -0,0 +1,124 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.entities.Order;
+import com.example.demo.entities.OrderItem;
+import com.example.demo.entities.OrderStatus;
+import com.example.demo.repositories.OrderItemRepository;
+
+import jakarta.persistence.EntityManager;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class OrderLedgerExportServiceTests {
+
+	private static final LocalDateTime NOON = LocalDateTime.of(2023, 5, 1, 12, 0, 0, 250_000_000);
+	private static final BigDecimal PRICE = new BigDecimal("5.00");
+
+	@Autowired
+	private OrderLedgerExportService orderLedgerExportService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	void ndjsonWritesSuccessfulOrdersInCreationOrderWithTheirItems() {
+		saveOrder("ledger_c", NOON.plusHours(1), OrderStatus.SUCCESS, 1);
+		saveOrder("ledger_b", NOON, OrderStatus.SUCCESS, 2);
+		saveOrder("ledger_a", NOON, OrderStatus.SUCCESS, 3);
+		saveOrder("ledger_pending", NOON.minusHours(1), OrderStatus.PENDING, 1);
+
+		String output = export(ExportFormat.NDJSON, null, null);
+
+		List<String> orderIds = new ArrayList<>();
+		List<Integer> itemCounts = new ArrayList<>();
+		for (String line : output.split("\n")) {
+			JsonNode order = objectMapper.readTree(line);
+			orderIds.add(order.get("order_id").asString());
+			itemCounts.add(order.get("items").size());
+		}
+		assertThat(orderIds).containsExactly("ledger_a", "ledger_b", "ledger_c");
+		assertThat(itemCounts).containsExactly(3, 2, 1);
+
+		JsonNode first = objectMapper.readTree(output.substring(0, output.indexOf('\n')));
+		assertThat(first.get("created_at").asString()).isEqualTo("2023-05-01T12:00:00.25");
+		assertThat(first.get("items").get(0).get("product_id").asInt()).isEqualTo(100);
+		assertThat(first.get("items").get(2).get("total_price").decimalValue()).isEqualByComparingTo("15.00");
+	}
+
+	@Test
+	void csvResumesAfterTheCheckpoint() {
+		saveOrder("ledger_a", NOON, OrderStatus.SUCCESS, 1);
+		saveOrder("ledger_b", NOON, OrderStatus.SUCCESS, 2);
+		saveOrder("ledger_c", NOON.plusHours(1), OrderStatus.SUCCESS, 1);
+
+		String output = export(ExportFormat.CSV, NOON, "ledger_a");
+
+		assertThat(output.split("\r\n")).containsExactly(
+				"order_id,user_id,total_amount,created_at,updated_at,item_id,product_id,quantity,price_per_unit,total_price",
+				"ledger_b,7,15.00,2023-05-01T12:00:00.25,,%d,100,1,5.00,5.00".formatted(itemId("ledger_b", 0)),
+				"ledger_b,7,15.00,2023-05-01T12:00:00.25,,%d,101,2,5.00,10.00".formatted(itemId("ledger_b", 1)),
+				"ledger_c,7,5.00,2023-05-01T13:00:00.25,,%d,100,1,5.00,5.00".formatted(itemId("ledger_c", 0)));
+	}
+
+	@Test
+	void checkpointNeedsBothParts() {
+		assertThatThrownBy(() -> OrderLedgerExportService.checkCheckpoint(NOON, null))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> OrderLedgerExportService.checkCheckpoint(null, "ledger_a"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private String export(ExportFormat format, LocalDateTime afterCreatedAt, String afterOrderId) {
+		entityManager.flush();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		orderLedgerExportService.export(format, afterCreatedAt, afterOrderId, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private int itemId(String orderId, int index) {
+		return orderItemRepository.findAll().stream()
+				.filter(item -> item.getOrder().getOrderId().equals(orderId))
+				.mapToInt(OrderItem::getId).sorted().toArray()[index];
+	}
+
+	// Item i is product 100 + i, bought i + 1 times at 5.00
+	private void saveOrder(String orderId, LocalDateTime createdAt, OrderStatus status, int items) {
+		String total = PRICE.multiply(BigDecimal.valueOf(items * (items + 1) / 2)).toPlainString();
+		Order order = fixtures.saveOrder(orderId, 7, status, total, createdAt);
+
+		List<OrderItem> orderItems = new ArrayList<>();
+		for (int i = 0; i < items; i++) {
+			orderItems.add(TestFixtures.orderItem(order, 100 + i, i + 1, PRICE));
+		}
+		orderItemRepository.batchInsert(orderItems);
+	}
+}
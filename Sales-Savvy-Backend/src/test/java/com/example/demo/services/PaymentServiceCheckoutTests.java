@@ -0,0 +1,101 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.dtos.CheckoutResult;
+import com.example.demo.dtos.StockShortage;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.OrderStatus;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CartRepository;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.OrderItemRepository;
+import com.example.demo.repositories.OrderRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PaymentServiceCheckoutTests {
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@AfterEach
+	void cleanUp() {
+		orderItemRepository.deleteAll();
+		orderRepository.deleteAll();
+		cartRepository.deleteAll();
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void checkoutTakesStockAndWritesOrderItems() {
+		Category category = categoryRepository.save(new Category("checkout"));
+		Product first = fixtures.saveProduct("first", category, "10.00", 5);
+		Product second = fixtures.saveProduct("second", category, "10.00", 3);
+		User user = fixtures.saveUser("buyer");
+		cartRepository.save(new CartItem(user, first, 2));
+		cartRepository.save(new CartItem(user, second, 3));
+		fixtures.savePendingOrder("order_ok", user, "50.00");
+
+		CheckoutResult result = fixtures.verify("order_ok", "pay_ok", user);
+
+		assertThat(result.verified()).isTrue();
+		assertThat(productRepository.findById(first.getProductId()).orElseThrow().getStock()).isEqualTo(3);
+		assertThat(productRepository.findById(second.getProductId()).orElseThrow().getStock()).isZero();
+		assertThat(orderItemRepository.count()).isEqualTo(2);
+		assertThat(cartRepository.countTotalItems(user.getUserId())).isZero();
+		assertThat(orderRepository.findById("order_ok").orElseThrow().getStatus()).isEqualTo(OrderStatus.SUCCESS);
+	}
+
+	@Test
+	void shortageRollsBackTheWholeCheckout() {
+		Category category = categoryRepository.save(new Category("shortage"));
+		Product plenty = fixtures.saveProduct("plenty", category, "10.00", 10);
+		Product scarce = fixtures.saveProduct("scarce", category, "10.00", 1);
+		User user = fixtures.saveUser("late-buyer");
+		cartRepository.save(new CartItem(user, plenty, 2));
+		cartRepository.save(new CartItem(user, scarce, 4));
+		fixtures.savePendingOrder("order_short", user, "50.00");
+
+		CheckoutResult result = fixtures.verify("order_short", "pay_short", user);
+
+		assertThat(result.verified()).isFalse();
+		assertThat(result.shortages()).containsExactly(new StockShortage(scarce.getProductId(), 4, 1));
+		assertThat(productRepository.findById(plenty.getProductId()).orElseThrow().getStock()).isEqualTo(10);
+		assertThat(productRepository.findById(scarce.getProductId()).orElseThrow().getStock()).isEqualTo(1);
+		assertThat(orderItemRepository.count()).isZero();
+		assertThat(cartRepository.countTotalItems(user.getUserId())).isEqualTo(6);
+		assertThat(orderRepository.findById("order_short").orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+	}
+}
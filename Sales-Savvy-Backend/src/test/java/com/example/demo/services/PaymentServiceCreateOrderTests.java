@@ -0,0 +1,193 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.OrderStatus;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CartRepository;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.OrderRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.StockReservationRepository;
+import com.example.demo.repositories.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+@SpringBootTest(properties = {
+		"payment.gateway.threads=1",
+		"payment.gateway.queue-capacity=0",
+		"payment.gateway.timeout-ms=500"
+})
+@ActiveProfiles("test")
+class PaymentServiceCreateOrderTests {
+
+	@Autowired
+	private PaymentService paymentService;
+
+	@Autowired
+	private StubPaymentGateway stubGateway;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private StockReservationRepository reservationRepository;
+
+	@AfterEach
+	void cleanUp() {
+		stubGateway.reset();
+		reservationRepository.deleteAll();
+		orderRepository.deleteAll();
+		cartRepository.deleteAll();
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void gatewayIsCalledWithoutHoldingAConnection() throws Exception {
+		User user = seedCart("connection-free", 5, 2);
+		HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+		stubGateway.onCall = () ->
+				stubGateway.activeConnectionsDuringCall = hikari.getHikariPoolMXBean().getActiveConnections();
+
+		String orderId = paymentService.createOrder(user.getUserId(), new BigDecimal("20.00"), List.of());
+
+		assertThat(stubGateway.activeConnectionsDuringCall).isZero();
+		assertThat(orderRepository.findById(orderId).orElseThrow().getStatus()).isEqualTo(OrderStatus.PENDING);
+		assertThat(reservationRepository.count()).isEqualTo(1);
+	}
+
+	@Test
+	void slowGatewayTimesOutWithoutTouchingTheDatabase() {
+		User user = seedCart("slow", 5, 2);
+		stubGateway.onCall = () -> sleep(2_000);
+
+		assertThatThrownBy(() -> paymentService.createOrder(user.getUserId(), new BigDecimal("20.00"), List.of()))
+				.isInstanceOf(PaymentGatewayUnavailableException.class);
+		assertThat(orderRepository.count()).isZero();
+		assertThat(reservationRepository.count()).isZero();
+	}
+
+	@Test
+	void callsBeyondTheBulkheadAreRejected() throws Exception {
+		User user = seedCart("busy", 5, 1);
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		stubGateway.onCall = () -> {
+			entered.countDown();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+
+		CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> {
+			try {
+				return paymentService.createOrder(user.getUserId(), BigDecimal.TEN, List.of());
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+		assertThatThrownBy(() -> paymentService.createOrder(user.getUserId(), BigDecimal.TEN, List.of()))
+				.isInstanceOf(PaymentGatewayUnavailableException.class)
+				.hasMessageContaining("busy");
+
+		release.countDown();
+		first.handle((orderId, error) -> null).get(5, TimeUnit.SECONDS);
+	}
+
+	private User seedCart(String name, int stock, int quantity) {
+		Category category = categoryRepository.save(new Category(name));
+		Product product = fixtures.saveProduct(name, category, "10.00", stock);
+		User user = fixtures.saveUser(name);
+		cartRepository.save(new CartItem(user, product, quantity));
+		return user;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Local stand-in for Razorpay: hands out order IDs and runs
+	 * {@link #onCall} to simulate latency or inspect state during the call.
+	 */
+	static class StubPaymentGateway implements PaymentGateway {
+
+		private final AtomicInteger orders = new AtomicInteger();
+		volatile Runnable onCall = () -> {
+		};
+		volatile int activeConnectionsDuringCall = -1;
+
+		@Override
+		public String createOrder(JSONObject orderRequest) {
+			onCall.run();
+			return "order_stub_" + orders.incrementAndGet();
+		}
+
+		void reset() {
+			onCall = () -> {
+			};
+			activeConnectionsDuringCall = -1;
+		}
+	}
+
+	@TestConfiguration
+	static class StubGatewayConfig {
+
+		@Bean
+		@Primary
+		StubPaymentGateway stubPaymentGateway() {
+			return new StubPaymentGateway();
+		}
+	}
+}
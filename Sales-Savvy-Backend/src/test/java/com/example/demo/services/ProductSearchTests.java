@@ -0,0 +1,100 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.Product;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductSearchTests {
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@AfterEach
+	void cleanUp() {
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+	}
+
+	@Test
+	void matchesPrefixesAndTypos() {
+		Category category = categoryRepository.save(new Category("Computers"));
+		Product laptop = fixtures.saveProduct("Zephyr Laptop", "Thin and light", category, "4.99", 10);
+
+		assertThat(ids(productService.searchProducts("zephy", 10))).containsExactly(laptop.getProductId());
+		assertThat(ids(productService.searchProducts("zephir", 10))).containsExactly(laptop.getProductId());
+		assertThat(ids(productService.searchProducts("COMPUTERS", 10))).containsExactly(laptop.getProductId());
+		assertThat(productService.searchProducts("tablet", 10)).isEmpty();
+	}
+
+	@Test
+	void foldsCaseTheSameWayUnderAnyDefaultLocale() {
+		Locale defaultLocale = Locale.getDefault();
+		Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+		try {
+			Category category = categoryRepository.save(new Category("Phones"));
+			Product phone = fixtures.saveProduct("IRIS PHONE", "Dual SIM", category, "4.99", 10);
+
+			assertThat(ids(productService.searchProducts("iris", 10))).containsExactly(phone.getProductId());
+			assertThat(ids(productService.searchProducts("sim", 10))).containsExactly(phone.getProductId());
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	@Test
+	void ranksNameMatchesAndMoreMatchedWordsFirst() {
+		Category category = categoryRepository.save(new Category("Kitchen"));
+		Product inDescription = fixtures.saveProduct("Cup", "Shaped like a quokka", category, "4.99", 10);
+		Product inName = fixtures.saveProduct("Quokka Cup", "Ceramic", category, "4.99", 10);
+		Product oneWord = fixtures.saveProduct("Quokka Plush", "Soft toy", category, "4.99", 10);
+
+		assertThat(ids(productService.searchProducts("quokka", 10)))
+				.containsExactly(inName.getProductId(), oneWord.getProductId(), inDescription.getProductId());
+		assertThat(ids(productService.searchProducts("quokka cup", 10)))
+				.containsExactly(inName.getProductId(), inDescription.getProductId(), oneWord.getProductId());
+		assertThat(productService.searchProducts("quokka", 1)).hasSize(1);
+	}
+
+	@Test
+	void followsCommittedProductChanges() {
+		Category category = categoryRepository.save(new Category("Garden"));
+		Product product = fixtures.saveProduct("Marigold Seeds", "Annual flowers", category, "4.99", 10);
+		assertThat(ids(productService.searchProducts("marigold", 10))).containsExactly(product.getProductId());
+
+		product.setName("Sunflower Seeds");
+		product = productRepository.save(product);
+		assertThat(productService.searchProducts("marigold", 10)).isEmpty();
+		assertThat(ids(productService.searchProducts("sunflower", 10))).containsExactly(product.getProductId());
+
+		productRepository.delete(product);
+		assertThat(productService.searchProducts("sunflower", 10)).isEmpty();
+	}
+
+	private static List<Integer> ids(List<Product> products) {
+		return products.stream().map(Product::getProductId).toList();
+	}
+}
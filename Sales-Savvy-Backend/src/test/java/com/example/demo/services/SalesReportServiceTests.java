@@ -0,0 +1,214 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.dtos.SalesSummary;
+import com.example.demo.dtos.TopProduct;
+import com.example.demo.entities.CartItem;
+import com.example.demo.entities.Category;
+import com.example.demo.entities.OrderStatus;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.CartRepository;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.DailySalesRepository;
+import com.example.demo.repositories.MonthlySalesRepository;
+import com.example.demo.repositories.OrderItemRepository;
+import com.example.demo.repositories.OrderRepository;
+import com.example.demo.repositories.ProductDailySalesRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SalesReportServiceTests {
+
+	@Autowired
+	private SalesReportService salesReportService;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private CartRepository cartRepository;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderItemRepository orderItemRepository;
+
+	@Autowired
+	private DailySalesRepository dailySalesRepository;
+
+	@Autowired
+	private MonthlySalesRepository monthlySalesRepository;
+
+	@Autowired
+	private ProductDailySalesRepository productDailySalesRepository;
+
+	private Category category;
+	private Product product;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		dailySalesRepository.deleteAll();
+		monthlySalesRepository.deleteAll();
+		productDailySalesRepository.deleteAll();
+		category = categoryRepository.save(new Category("reports"));
+		product = fixtures.saveProduct("report-item", category, "10.00", 100);
+		user = fixtures.saveUser("reporter");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		dailySalesRepository.deleteAll();
+		monthlySalesRepository.deleteAll();
+		productDailySalesRepository.deleteAll();
+		orderItemRepository.deleteAll();
+		orderRepository.deleteAll();
+		cartRepository.deleteAll();
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void verifiedPaymentsAreAddedToTheRollups() {
+		checkout("order_a", LocalDateTime.of(2021, 3, 5, 9, 0), 2, "20.00");
+		checkout("order_b", LocalDateTime.of(2021, 3, 5, 23, 59), 1, "10.00");
+		checkout("order_c", LocalDateTime.of(2021, 3, 20, 12, 0), 3, "30.00");
+		checkout("order_d", LocalDateTime.of(2021, 4, 1, 0, 0), 1, "10.00");
+		fixtures.saveOrder("order_unpaid", user.getUserId(), OrderStatus.PENDING, "99.00",
+				LocalDateTime.of(2021, 3, 5, 10, 0));
+
+		assertThat(salesReportService.getDailySales(LocalDate.of(2021, 3, 5)))
+				.isEqualTo(new SalesSummary("2021-03-05", 2, 3, new BigDecimal("30.00")));
+		assertThat(salesReportService.getDailySales(LocalDate.of(2021, 3, 6)))
+				.isEqualTo(SalesSummary.empty("2021-03-06"));
+		assertThat(salesReportService.getDailySales(LocalDate.of(2021, 3, 1), LocalDate.of(2021, 3, 31)))
+				.extracting(SalesSummary::period).containsExactly("2021-03-05", "2021-03-20");
+		assertThat(salesReportService.getMonthlySales(2021, 3))
+				.isEqualTo(new SalesSummary("2021-03", 3, 6, new BigDecimal("60.00")));
+		assertThat(salesReportService.getYearlySales(2021))
+				.isEqualTo(new SalesSummary("2021", 4, 7, new BigDecimal("70.00")));
+		assertThat(salesReportService.getOverallSales())
+				.isEqualTo(new SalesSummary("overall", 4, 7, new BigDecimal("70.00")));
+	}
+
+	@Test
+	void replayedVerificationIsCountedOnce() {
+		checkout("order_replay", LocalDateTime.of(2021, 9, 9, 9, 0), 2, "20.00");
+		cartRepository.save(new CartItem(user, product, 3));
+
+		verify("order_replay");
+
+		assertThat(salesReportService.getDailySales(LocalDate.of(2021, 9, 9)))
+				.isEqualTo(new SalesSummary("2021-09-09", 1, 2, new BigDecimal("20.00")));
+		assertThat(salesReportService.getMonthlySales(2021, 9))
+				.isEqualTo(new SalesSummary("2021-09", 1, 2, new BigDecimal("20.00")));
+		assertThat(salesReportService.getTopProducts(LocalDate.of(2021, 9, 1), LocalDate.of(2021, 9, 30),
+				SalesReportService.Ranking.UNITS, 10))
+				.containsExactly(new TopProduct(product.getProductId(), "report-item", 2, new BigDecimal("20.00")));
+		assertThat(orderItemRepository.count()).isEqualTo(1);
+		assertThat(cartRepository.countTotalItems(user.getUserId())).isEqualTo(3);
+		assertThat(productRepository.findById(product.getProductId()).orElseThrow().getStock()).isEqualTo(98);
+	}
+
+	@Test
+	void rebuildReproducesTheIncrementalRollups() {
+		checkout("order_e", LocalDateTime.of(2022, 1, 31, 18, 0), 2, "20.00");
+		checkout("order_f", LocalDateTime.of(2022, 2, 1, 8, 0), 4, "40.00");
+		List<SalesSummary> before = List.of(salesReportService.getMonthlySales(2022, 1),
+				salesReportService.getMonthlySales(2022, 2), salesReportService.getDailySales(LocalDate.of(2022, 2, 1)));
+
+		List<TopProduct> topBefore = salesReportService.getTopProducts(LocalDate.of(2022, 1, 1),
+				LocalDate.of(2022, 12, 31), SalesReportService.Ranking.UNITS, 10);
+
+		dailySalesRepository.deleteAll();
+		monthlySalesRepository.deleteAll();
+		productDailySalesRepository.deleteAll();
+		salesReportService.rebuildRollups();
+
+		assertThat(List.of(salesReportService.getMonthlySales(2022, 1), salesReportService.getMonthlySales(2022, 2),
+				salesReportService.getDailySales(LocalDate.of(2022, 2, 1)))).isEqualTo(before);
+		assertThat(salesReportService.getTopProducts(LocalDate.of(2022, 1, 1), LocalDate.of(2022, 12, 31),
+				SalesReportService.Ranking.UNITS, 10)).isEqualTo(topBefore);
+	}
+
+	@Test
+	void topProductsAreRankedByUnitsOrRevenueWithinTheWindow() {
+		Product cheap = fixtures.saveProduct("cheap", category, "1.00", 100);
+		Product pricey = fixtures.saveProduct("pricey", category, "50.00", 100);
+		checkout("order_g", LocalDateTime.of(2023, 6, 1, 10, 0), 2, "20.00");
+		checkout("order_h", LocalDateTime.of(2023, 6, 2, 10, 0), cheap, 5, pricey, 1);
+		checkout("order_i", LocalDateTime.of(2023, 6, 3, 10, 0), cheap, 4, product, 1);
+		// Outside the window
+		checkout("order_j", LocalDateTime.of(2023, 7, 1, 10, 0), pricey, 10, product, 1);
+
+		LocalDate from = LocalDate.of(2023, 6, 1);
+		LocalDate to = LocalDate.of(2023, 6, 30);
+		assertThat(salesReportService.getTopProducts(from, to, SalesReportService.Ranking.UNITS, 10)).containsExactly(
+				new TopProduct(cheap.getProductId(), "cheap", 9, new BigDecimal("9.00")),
+				new TopProduct(product.getProductId(), "report-item", 3, new BigDecimal("30.00")),
+				new TopProduct(pricey.getProductId(), "pricey", 1, new BigDecimal("50.00")));
+		assertThat(salesReportService.getTopProducts(from, to, SalesReportService.Ranking.REVENUE, 2))
+				.extracting(TopProduct::productId).containsExactly(pricey.getProductId(), product.getProductId());
+		assertThat(salesReportService.getTopProducts(LocalDate.of(2023, 6, 1), LocalDate.of(2023, 6, 1),
+				SalesReportService.Ranking.UNITS, 10))
+				.containsExactly(new TopProduct(product.getProductId(), "report-item", 2, new BigDecimal("20.00")));
+	}
+
+	@Test
+	void topProductTiesGoToTheLowerProductId() {
+		Product first = fixtures.saveProduct("tie-first", category, "10.00", 100);
+		Product second = fixtures.saveProduct("tie-second", category, "10.00", 100);
+		checkout("order_k", LocalDateTime.of(2024, 2, 2, 10, 0), second, 1, first, 1);
+
+		assertThat(salesReportService.getTopProducts(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29),
+				SalesReportService.Ranking.REVENUE, 1))
+				.extracting(TopProduct::productId).containsExactly(first.getProductId());
+	}
+
+	private void checkout(String orderId, LocalDateTime createdAt, Product a, int quantityA, Product b, int quantityB) {
+		cartRepository.save(new CartItem(user, a, quantityA));
+		cartRepository.save(new CartItem(user, b, quantityB));
+		BigDecimal amount = a.getPrice().multiply(BigDecimal.valueOf(quantityA))
+				.add(b.getPrice().multiply(BigDecimal.valueOf(quantityB)));
+		fixtures.saveOrder(orderId, user.getUserId(), OrderStatus.PENDING, amount.toPlainString(), createdAt);
+		verify(orderId);
+	}
+
+	private void checkout(String orderId, LocalDateTime createdAt, int quantity, String amount) {
+		cartRepository.save(new CartItem(user, product, quantity));
+		fixtures.saveOrder(orderId, user.getUserId(), OrderStatus.PENDING, amount, createdAt);
+		verify(orderId);
+	}
+
+	private void verify(String orderId) {
+		assertThat(fixtures.verify(orderId, "pay_" + orderId, user).verified()).isTrue();
+	}
+}
@@ -0,0 +1,196 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.dtos.StockShortage;
+import com.example.demo.entities.Product;
+import com.example.demo.entities.ReservationStatus;
+import com.example.demo.entities.StockReservation;
+import com.example.demo.repositories.CategoryRepository;
+import com.example.demo.repositories.ProductRepository;
+import com.example.demo.repositories.StockReservationRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationServiceTests {
+
+	private static final int THREADS = 200;
+
+	@Autowired
+	private StockReservationService stockReservationService;
+
+	@Autowired
+	private StockReservationRepository reservationRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private CategoryRepository categoryRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@AfterEach
+	void cleanUp() {
+		reservationRepository.deleteAll();
+		productRepository.deleteAll();
+		categoryRepository.deleteAll();
+	}
+
+	@Test
+	void hotProductIsNeverOversold() throws Exception {
+		Product product = fixtures.saveProduct("hot", 50);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				String orderId = "order_" + i;
+				results.add(executor.submit(() -> {
+					start.await();
+					return transactionTemplate.execute(status -> {
+						List<StockShortage> shortages = stockReservationService.reserve(orderId,
+								Map.of(product.getProductId(), 1));
+						if (!shortages.isEmpty()) {
+							status.setRollbackOnly();
+						}
+						return shortages.isEmpty();
+					});
+				}));
+			}
+			start.countDown();
+
+			int reserved = 0;
+			for (Future<Boolean> result : results) {
+				if (result.get(60, TimeUnit.SECONDS)) {
+					reserved++;
+				}
+			}
+
+			assertThat(reserved).isEqualTo(50);
+			assertThat(productRepository.findStockByIds(List.of(product.getProductId())))
+					.containsEntry(product.getProductId(), 0);
+			assertThat(reservationRepository.count()).isEqualTo(50);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void reservationLocksProductsInIdOrder() throws Exception {
+		Product first = fixtures.saveProduct("locked-first", 10);
+		Product second = fixtures.saveProduct("locked-second", 10);
+		// Listed the other way round from the lock order
+		Map<Integer, Integer> cart = new LinkedHashMap<>();
+		cart.put(second.getProductId(), 1);
+		cart.put(first.getProductId(), 1);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		TransactionStatus holder = transactionManager.getTransaction(new DefaultTransactionDefinition());
+		try {
+			jdbcTemplate.update("UPDATE products SET stock = stock WHERE product_id = ?", first.getProductId());
+			Future<List<StockShortage>> reservation = executor.submit(() -> new TransactionTemplate(transactionManager)
+					.execute(status -> stockReservationService.reserve("order_locked", cart)));
+			Thread.sleep(300);
+
+			// The reservation waits on the first product before touching the second, so the second is still free
+			jdbcTemplate.update("UPDATE products SET stock = stock WHERE product_id = ?", second.getProductId());
+			transactionManager.commit(holder);
+
+			assertThat(reservation.get(60, TimeUnit.SECONDS)).isEmpty();
+			assertThat(stockOf(first)).isEqualTo(9);
+			assertThat(stockOf(second)).isEqualTo(9);
+		} finally {
+			if (!holder.isCompleted()) {
+				transactionManager.rollback(holder);
+			}
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	void emptyCartReservesNothing() {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+		List<StockShortage> shortages = transactionTemplate.execute(status ->
+				stockReservationService.reserve("order_empty", Map.of()));
+
+		assertThat(shortages).isEmpty();
+		assertThat(reservationRepository.count()).isZero();
+	}
+
+	@Test
+	void commitSettlesTheDifferenceWithTheReservation() {
+		Product product = fixtures.saveProduct("settled", 10);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.executeWithoutResult(status ->
+				stockReservationService.reserve("order_settle", Map.of(product.getProductId(), 4)));
+
+		List<StockShortage> shortages = transactionTemplate.execute(status ->
+				stockReservationService.commit("order_settle", Map.of(product.getProductId(), 3)));
+
+		assertThat(shortages).isEmpty();
+		assertThat(stockOf(product)).isEqualTo(7);
+		assertThat(reservationRepository.findByOrderIdAndStatus("order_settle", ReservationStatus.COMMITTED))
+				.hasSize(1);
+	}
+
+	@Test
+	void expiredReservationsGiveTheirStockBack() {
+		Product product = fixtures.saveProduct("expiring", 10);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.executeWithoutResult(status ->
+				stockReservationService.reserve("order_expired", Map.of(product.getProductId(), 6)));
+		for (StockReservation reservation : reservationRepository.findAll()) {
+			reservation.setExpiresAt(LocalDateTime.now().minusMinutes(1));
+			reservationRepository.save(reservation);
+		}
+
+		stockReservationService.releaseExpired();
+
+		assertThat(stockOf(product)).isEqualTo(10);
+		assertThat(reservationRepository.findByOrderIdAndStatus("order_expired", ReservationStatus.RELEASED))
+				.hasSize(1);
+
+		// A late payment no longer holds a reservation and has to take the stock again
+		List<StockShortage> shortages = transactionTemplate.execute(status ->
+				stockReservationService.commit("order_expired", Map.of(product.getProductId(), 6)));
+		assertThat(shortages).isEmpty();
+		assertThat(stockOf(product)).isEqualTo(4);
+	}
+
+	private int stockOf(Product product) {
+		return productRepository.findStockByIds(List.of(product.getProductId())).get(product.getProductId());
+	}
+}
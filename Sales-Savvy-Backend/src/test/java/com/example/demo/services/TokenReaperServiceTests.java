@@ -0,0 +1,97 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.cache.VerifiedTokenCache;
+import com.example.demo.entities.JWTToken;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.JWTTokenRepository;
+import com.example.demo.repositories.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenReaperServiceTests {
+
+	@Autowired
+	private TokenReaperService tokenReaperService;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private JWTTokenRepository jwtTokenRepository;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenRepository.deleteAll();
+		user = fixtures.saveUser("token-owner");
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jwtTokenRepository.deleteAll();
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void reaperDeletesOnlyExpiredTokensAcrossBatches() {
+		for (int i = 0; i < 5; i++) {
+			saveToken("expired-" + i, LocalDateTime.now().minusMinutes(i + 1));
+		}
+		JWTToken live = saveToken("live", LocalDateTime.now().plusHours(1));
+
+		assertThat(tokenReaperService.reapExpired()).isEqualTo(5);
+
+		assertThat(jwtTokenRepository.findAll()).extracting(JWTToken::getTokenId).containsExactly(live.getTokenId());
+		Map<String, Object> stats = tokenReaperService.stats();
+		assertThat(stats.get("tokens")).isEqualTo(1L);
+		assertThat(stats.get("expired_pending")).isEqualTo(0L);
+		assertThat(stats.get("last_reaped")).isEqualTo(5L);
+	}
+
+	@Test
+	void issuedTokensAreFoundThroughTheirHash() {
+		String token = authService.generateToken(user);
+
+		JWTToken stored = jwtTokenRepository.findFirstByTokenHash(VerifiedTokenCache.hash(token)).orElseThrow();
+		assertThat(stored.getToken()).isEqualTo(token);
+		assertThat(authService.verifyToken(token)).isPresent();
+	}
+
+	@Test
+	void backfillHashesRowsSavedWithoutOne() {
+		for (int i = 0; i < 3; i++) {
+			jwtTokenRepository.save(new JWTToken(user, "legacy-" + i, LocalDateTime.now().plusHours(1)));
+		}
+
+		tokenReaperService.backfillTokenHashes();
+
+		assertThat(jwtTokenRepository.findAll())
+				.allSatisfy(token -> assertThat(token.getTokenHash()).isEqualTo(VerifiedTokenCache.hash(token.getToken())));
+	}
+
+	private JWTToken saveToken(String token, LocalDateTime expiresAt) {
+		JWTToken jwtToken = new JWTToken(user, token, expiresAt);
+		jwtToken.setTokenHash(VerifiedTokenCache.hash(token));
+		return jwtTokenRepository.save(jwtToken);
+	}
+}
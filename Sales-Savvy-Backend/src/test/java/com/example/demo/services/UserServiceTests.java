@@ -0,0 +1,95 @@
+package com.example.demo.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.TestFixtures;
+import com.example.demo.cache.PrincipalCache;
+import com.example.demo.cache.VerifiedTokenCache;
+import com.example.demo.entities.Role;
+import com.example.demo.entities.User;
+import com.example.demo.repositories.JWTTokenRepository;
+import com.example.demo.repositories.UserRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private AuthService authService;
+
+	@Autowired
+	private PrincipalCache principalCache;
+
+	@Autowired
+	private VerifiedTokenCache tokenCache;
+
+	@Autowired
+	private TestFixtures fixtures;
+
+	@Autowired
+	private JWTTokenRepository jwtTokenRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private User user;
+	private String token;
+
+	@BeforeEach
+	void setUp() {
+		user = fixtures.saveUser("promoted");
+		token = authService.generateToken(user);
+		// Warm both caches the way an authenticated request does
+		assertThat(authService.verifyToken(token)).isPresent();
+		assertThat(principalCache.get(user.getUsername()).orElseThrow().role()).isEqualTo(Role.CUSTOMER);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		jwtTokenRepository.deleteAll();
+		principalCache.evict(user.getUsername());
+		tokenCache.evictUser(user.getUsername());
+		userRepository.deleteAll();
+	}
+
+	@Test
+	void roleChangeReachesTheCachesOnlyAfterCommit() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			userService.updateRole(user.getUserId(), Role.ADMIN);
+
+			assertThat(principalCache.get(user.getUsername()).orElseThrow().role()).isEqualTo(Role.CUSTOMER);
+			assertThat(tokenCache.get(token)).isNotNull();
+		});
+
+		assertThat(principalCache.get(user.getUsername()).orElseThrow().role()).isEqualTo(Role.ADMIN);
+		assertThat(tokenCache.get(token)).isNull();
+		assertThat(authService.verifyToken(token)).isEmpty();
+	}
+
+	@Test
+	void rolledBackRoleChangeLeavesTheCachesAlone() {
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			userService.updateRole(user.getUserId(), Role.ADMIN);
+			status.setRollbackOnly();
+		});
+
+		assertThat(principalCache.get(user.getUsername()).orElseThrow().role()).isEqualTo(Role.CUSTOMER);
+		assertThat(authService.verifyToken(token)).isPresent();
+		assertThat(jwtTokenRepository.count()).isEqualTo(1);
+	}
+}